@@ -0,0 +1,54 @@
+package benchmarks;
+
+import models.*;
+import org.openjdk.jmh.annotations.*;
+import server.AvailabilityChecker;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// CHECK_AVAILABILITY po stronie serwera: 48 pytań o 24 seanse w salach 40x60 zajętych w 95%
+// (po jednym pytaniu o konkretne miejsca i o grupę 4 osób na seans)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityBenchmark {
+    private final Map<Integer, Screening> screenings = new HashMap<>();
+    private AvailabilityQuery query;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        query = new AvailabilityQuery();
+        for (int id = 1; id <= 24; id++) {
+            Room room = Fixtures.room(id, "40x60");
+            Screening screening = Fixtures.screening(id, Fixtures.movie(id), room);
+            for (int row = 1; row <= room.getRows(); row++) {
+                for (int seat = 1; seat <= room.getSeatsPerRow(); seat++) {
+                    if (random.nextDouble() < 0.95) {
+                        screening.updateSeatStatus(row, seat, false);
+                    }
+                }
+            }
+            screening.getFreeSeatWords(1);
+            screenings.put(id, screening);
+
+            int row = 1 + random.nextInt(room.getRows());
+            int first = 1 + random.nextInt(room.getSeatsPerRow() - 2);
+            query.addSeats(id, List.of(new Seat(row, first, SeatStatus.RESERVED),
+                                       new Seat(row, first + 1, SeatStatus.RESERVED)));
+            query.addPartySize(id, 4);
+        }
+    }
+
+    @Benchmark
+    public byte[] check() {
+        return AvailabilityChecker.check(query, screenings::get);
+    }
+}
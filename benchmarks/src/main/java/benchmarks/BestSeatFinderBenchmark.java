@@ -0,0 +1,81 @@
+package benchmarks;
+
+import models.*;
+import org.openjdk.jmh.annotations.*;
+import server.BestSeatFinder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Wyszukiwanie N sąsiednich miejsc w dużej, prawie wyprzedanej sali: słowa bitowe (BestSeatFinder)
+// kontra proste przejście po tablicy boolean[][] z tą samą oceną miejsc
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BestSeatFinderBenchmark {
+    @Param({"40x60"})
+    public String roomLayout;
+
+    @Param({"0.95"})
+    public double occupancy;
+
+    @Param({"2", "4", "8"})
+    public int partySize;
+
+    private Screening screening;
+
+    @Setup
+    public void setup() {
+        Room room = Fixtures.room(1, roomLayout);
+        screening = Fixtures.screening(1, Fixtures.movie(1), room);
+
+        Random random = new Random(42);
+        for (int row = 1; row <= room.getRows(); row++) {
+            for (int seat = 1; seat <= room.getSeatsPerRow(); seat++) {
+                if (random.nextDouble() < occupancy) {
+                    screening.updateSeatStatus(row, seat, false);
+                }
+            }
+        }
+        // Słowa bitowe budowane są raz, poza pomiarem - tak jak po pierwszym zapytaniu na serwerze
+        screening.getFreeSeatWords(1);
+    }
+
+    @Benchmark
+    public List<Seat> bitwise() {
+        return BestSeatFinder.find(screening, partySize);
+    }
+
+    @Benchmark
+    public int[] naiveScan() {
+        boolean[][] seats = screening.getAvailableSeats();
+        int rows = seats.length;
+        int seatsPerRow = seats[0].length;
+        double preferredRow = (rows - 1) * 0.65;
+        double idealStart = (seatsPerRow - partySize) / 2.0;
+
+        double bestScore = Double.MAX_VALUE;
+        int[] best = null;
+        for (int row = 0; row < rows; row++) {
+            for (int start = 0; start + partySize <= seatsPerRow; start++) {
+                boolean free = true;
+                for (int k = 0; k < partySize && free; k++) {
+                    free = seats[row][start + k];
+                }
+                if (!free) {
+                    continue;
+                }
+                double score = Math.abs(row - preferredRow) / rows + Math.abs(start - idealStart) / seatsPerRow;
+                if (score < bestScore) {
+                    bestScore = score;
+                    best = new int[] {row + 1, start + 1};
+                }
+            }
+        }
+        return best;
+    }
+}
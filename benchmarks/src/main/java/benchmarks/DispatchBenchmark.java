@@ -0,0 +1,62 @@
+package benchmarks;
+
+import dao.DatabaseManager;
+import models.Message;
+import models.MessageType;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+// Obsługa żądań w UDPServer.processRequest z bazą H2 w pamięci (bez gniazda UDP).
+// UDPServer leży w pakiecie domyślnym, więc jest wywoływany przez MethodHandle.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    @Param({"GET_MOVIES", "GET_SCREENINGS", "GET_SEATS", "GET_RESERVATIONS_BY_EMAIL"})
+    public String type;
+
+    private Object server;
+    private MethodHandle processRequest;
+    private Message request;
+
+    @Setup
+    public void setup() throws Throwable {
+        Class<?> serverClass = Class.forName("UDPServer");
+        DatabaseManager dbManager = new DatabaseManager("jdbc:h2:mem:dispatch-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        server = serverClass.getConstructor(int.class, DatabaseManager.class).newInstance(0, dbManager);
+
+        processRequest = MethodHandles.privateLookupIn(serverClass, MethodHandles.lookup())
+                .findVirtual(serverClass, "processRequest", MethodType.methodType(Message.class, Message.class));
+
+        MessageType messageType = MessageType.valueOf(type);
+        switch (messageType) {
+            case GET_SCREENINGS:
+            case GET_SEATS:
+                request = new Message(messageType, 1);
+                break;
+            case GET_RESERVATIONS_BY_EMAIL:
+                request = new Message(messageType, "customer@example.com");
+                break;
+            default:
+                request = new Message(messageType, null);
+                break;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        server.getClass().getMethod("stop").invoke(server);
+    }
+
+    @Benchmark
+    public Message processRequest() throws Throwable {
+        return (Message) processRequest.invoke(server, request);
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import models.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Dane testowe współdzielone przez benchmarki
+final class Fixtures {
+    private Fixtures() {
+    }
+
+    static Movie movie(int movieId) {
+        return new Movie(movieId, "Movie " + movieId, 120,
+                "A moderately long description of the movie used to make payloads realistic.",
+                "Drama", "Director " + movieId, 2000 + movieId % 25, "English");
+    }
+
+    static Room room(int roomId, String layout) {
+        String[] parts = layout.split("x");
+        return new Room(roomId, "Sala " + roomId, Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    static Screening screening(int screeningId, Movie movie, Room room) {
+        return new Screening(screeningId, movie, room, LocalDateTime.now().plusDays(1), 25.0);
+    }
+
+    // Rezerwacje po 2-4 miejsca; co druga dotyczy innego seansu, aby filtrowanie miało co odrzucać
+    static List<Reservation> reservations(Screening screening, Screening other, int count, long seed) {
+        Random random = new Random(seed);
+        Room room = screening.getRoom();
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Screening target = i % 2 == 0 ? screening : other;
+            int row = 1 + random.nextInt(room.getRows());
+            int size = 2 + random.nextInt(3);
+            int first = 1 + random.nextInt(room.getSeatsPerRow() - size + 1);
+
+            List<Seat> seats = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                seats.add(new Seat(row, first + j, SeatStatus.RESERVED));
+            }
+
+            Reservation reservation = new Reservation(target, seats, "Customer " + i,
+                    "customer" + (i % 50) + "@example.com", "123456789");
+            reservation.setStatus(ReservationStatus.CONFIRMED);
+            reservations.add(reservation);
+        }
+        return reservations;
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import models.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serializacja komunikatów (żądanie i typowa odpowiedź) dla poszczególnych typów komunikatów
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCodecBenchmark {
+    @Param({"GET_MOVIES", "GET_SCREENINGS", "GET_SEATS", "MAKE_RESERVATION",
+            "CANCEL_RESERVATION", "GET_RESERVATIONS_BY_EMAIL"})
+    public String type;
+
+    private Message request;
+    private Message response;
+    private byte[] encodedRequest;
+    private byte[] encodedResponse;
+
+    @Setup
+    public void setup() throws Exception {
+        Movie movie = Fixtures.movie(1);
+        Room room = Fixtures.room(1, "10x15");
+        Screening screening = Fixtures.screening(1, movie, room);
+        List<Reservation> reservations = Fixtures.reservations(screening, screening, 5, 42);
+
+        List<Movie> movies = new ArrayList<>();
+        List<Screening> screenings = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            movies.add(Fixtures.movie(i));
+            screenings.add(Fixtures.screening(i, movie, room));
+        }
+
+        MessageType messageType = MessageType.valueOf(type);
+        switch (messageType) {
+            case GET_MOVIES:
+                request = new Message(messageType, null);
+                response = request.createSuccessResponse(movies);
+                break;
+            case GET_SCREENINGS:
+                request = new Message(messageType, 1);
+                response = request.createSuccessResponse(screenings.stream().map(ScreeningSummary::of).toList());
+                break;
+            case GET_SEATS:
+                request = new Message(messageType, 1);
+                response = request.createSuccessResponse(screening.getAvailableSeats());
+                break;
+            case MAKE_RESERVATION:
+                request = new Message(messageType, new ReservationCommand(1, reservations.get(0).getReservedSeats(),
+                        "Customer 0", "customer0@example.com", "123456789"));
+                response = request.createSuccessResponse(reservations.get(0));
+                break;
+            case CANCEL_RESERVATION:
+                request = new Message(messageType, reservations.get(0).getReservationId());
+                response = request.createSuccessResponse(true);
+                break;
+            default:
+                request = new Message(messageType, "customer1@example.com");
+                response = request.createSuccessResponse(reservations.stream().map(ReservationSummary::of).toList());
+                break;
+        }
+
+        encodedRequest = MessageCodec.encode(request);
+        encodedResponse = MessageCodec.encode(response);
+    }
+
+    @Benchmark
+    public byte[] encodeRequest() throws Exception {
+        return MessageCodec.encode(request);
+    }
+
+    @Benchmark
+    public Message decodeRequest() throws Exception {
+        return MessageCodec.decode(encodedRequest, 0, encodedRequest.length);
+    }
+
+    @Benchmark
+    public Message roundTripResponse() throws Exception {
+        byte[] data = MessageCodec.encode(response);
+        return MessageCodec.decode(data, 0, data.length);
+    }
+
+    @Benchmark
+    public Message decodeResponse() throws Exception {
+        return MessageCodec.decode(encodedResponse, 0, encodedResponse.length);
+    }
+}
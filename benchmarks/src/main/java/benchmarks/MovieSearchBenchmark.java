@@ -0,0 +1,66 @@
+package benchmarks;
+
+import models.Movie;
+import org.openjdk.jmh.annotations.*;
+import server.MovieSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// SEARCH_MOVIES w archiwalnym katalogu 50 tys. tytułów złożonych z losowych słów (także z polskimi znakami):
+// pełne słowo, prefiks wpisywany na bieżąco i dwa słowa bez polskich znaków
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieSearchBenchmark {
+    private static final String[] WORDS = {
+        "Popiół", "diament", "Pan", "Tadeusz", "Żółć", "noc", "dzień", "miasto", "ziemia", "obiecana",
+        "rejs", "seksmisja", "miś", "potop", "krzyżacy", "wesele", "dom", "zły", "Ida", "zimna",
+        "wojna", "night", "city", "lost", "dream", "river", "stone", "king", "queen", "shadow",
+        "light", "last", "first", "return", "journey", "secret", "garden", "winter", "summer", "storm"
+    };
+    private static final String[] GENRES = {"Drama", "Comedy", "Thriller", "Dramat", "Komedia", "Sci-Fi"};
+
+    @Param({"50000"})
+    private int movies;
+
+    private MovieSearchIndex index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<Movie> catalog = new ArrayList<>(movies);
+        for (int id = 1; id <= movies; id++) {
+            StringBuilder title = new StringBuilder();
+            int words = 1 + random.nextInt(4);
+            for (int w = 0; w < words; w++) {
+                title.append(w > 0 ? " " : "").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            title.append(' ').append(id); // tytuły archiwalne często różnią się numerem części
+            catalog.add(new Movie(id, title.toString(), 90 + random.nextInt(90), "",
+                    GENRES[random.nextInt(GENRES.length)], "Director " + random.nextInt(2000),
+                    1930 + random.nextInt(95), random.nextBoolean() ? "Polish" : "English"));
+        }
+        index = new MovieSearchIndex(catalog);
+    }
+
+    @Benchmark
+    public List<Movie> exactWord() {
+        return index.search("seksmisja", 0, 20);
+    }
+
+    @Benchmark
+    public List<Movie> prefix() {
+        return index.search("kr", 0, 20);
+    }
+
+    @Benchmark
+    public List<Movie> twoWordsFolded() {
+        return index.search("popiol diament", 0, 20);
+    }
+}
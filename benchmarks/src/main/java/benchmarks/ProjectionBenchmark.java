@@ -0,0 +1,58 @@
+package benchmarks;
+
+import models.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Odpowiedzi listowe: pełne obiekty domeny kontra podsumowania dla repertuaru 500 seansów
+// (GET_SCREENINGS) i 20 rezerwacji klienta (GET_RESERVATIONS_BY_EMAIL). Rozmiar zakodowanej
+// odpowiedzi wypisywany jest przy przygotowaniu danych.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectionBenchmark {
+    @Param({"GET_SCREENINGS", "GET_RESERVATIONS_BY_EMAIL"})
+    public String type;
+
+    @Param({"full", "summary"})
+    public String view;
+
+    private Message response;
+
+    @Setup
+    public void setup() throws Exception {
+        List<Screening> screenings = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            Room room = Fixtures.room(1 + i % 10, i % 2 == 0 ? "10x15" : "20x30");
+            screenings.add(Fixtures.screening(i, Fixtures.movie(1 + i % 50), room));
+        }
+        List<Reservation> reservations = Fixtures.reservations(screenings.get(0), screenings.get(1), 20, 42);
+
+        boolean summary = view.equals("summary");
+        Message request;
+        if (type.equals("GET_SCREENINGS")) {
+            request = new Message(MessageType.GET_SCREENINGS, null);
+            response = request.createSuccessResponse(summary
+                    ? screenings.stream().map(ScreeningSummary::of).toList()
+                    : screenings);
+        } else {
+            request = new Message(MessageType.GET_RESERVATIONS_BY_EMAIL, "customer1@example.com");
+            response = request.createSuccessResponse(summary
+                    ? reservations.stream().map(ReservationSummary::of).toList()
+                    : reservations);
+        }
+        System.out.println();
+        System.out.println(type + " " + view + ": " + MessageCodec.encode(response).length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encodeResponse() throws Exception {
+        return MessageCodec.encode(response);
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import dao.*;
+import models.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ReservationDAO.insert na bazie H2 w pamięci
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationInsertBenchmark {
+    @Param({"1", "4", "10"})
+    public int partySize;
+
+    private DatabaseManager dbManager;
+    private ReservationDAO reservationDAO;
+    private Screening screening;
+    private List<Seat> seats;
+
+    @Setup
+    public void setup() throws Exception {
+        dbManager = new DatabaseManager("jdbc:h2:mem:insert-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dbManager.initDatabase();
+        Connection connection = dbManager.getConnection();
+
+        Movie movie = Fixtures.movie(1);
+        Room room = Fixtures.room(1, "10x15");
+        screening = Fixtures.screening(1, movie, room);
+        new MovieDAO(connection).insert(movie);
+        new RoomDAO(connection).insert(room);
+        new ScreeningDAO(connection).insert(screening);
+
+        reservationDAO = new ReservationDAO(connection);
+        seats = Fixtures.reservations(screening, screening, 1, 42).get(0).getReservedSeats();
+        while (seats.size() < partySize) {
+            seats.add(new Seat(seats.size() % room.getRows() + 1, seats.size() % room.getSeatsPerRow() + 1, SeatStatus.RESERVED));
+        }
+        seats = seats.subList(0, partySize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dbManager.closeConnection();
+    }
+
+    @Benchmark
+    public Reservation insert() throws Exception {
+        // Każde wywołanie tworzy rezerwację z nowym identyfikatorem
+        Reservation reservation = new Reservation(screening, seats, "Customer", "customer@example.com", "123456789");
+        reservationDAO.insert(reservation);
+        return reservation;
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import models.*;
+import org.openjdk.jmh.annotations.*;
+import server.ScreeningTimeIndex;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Repertuar na jeden dzień z rocznego planu (365 dni x 24 seanse): wycinek indeksu czasu
+// w porównaniu z filtrowaniem całej listy seansów
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScreeningTimeIndexBenchmark {
+    private final List<Screening> screenings = new ArrayList<>();
+    private ScreeningTimeIndex index;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @Setup
+    public void setup() {
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        Movie movie = Fixtures.movie(1);
+        Room room = Fixtures.room(1, "10x10");
+        int id = 1;
+        for (int day = 0; day < 365; day++) {
+            for (int slot = 0; slot < 24; slot++) {
+                LocalDateTime time = start.plusDays(day).atTime(10 + slot / 2, slot % 2 * 30);
+                screenings.add(new Screening(id++, movie, room, time, 25.0));
+            }
+        }
+        index = new ScreeningTimeIndex(screenings);
+        from = start.plusDays(200).atStartOfDay();
+        to = from.plusDays(1);
+    }
+
+    @Benchmark
+    public List<Screening> timeIndex() {
+        return index.range(from, to, 0, 100);
+    }
+
+    @Benchmark
+    public List<Screening> linearScan() {
+        List<Screening> result = new ArrayList<>();
+        for (Screening screening : screenings) {
+            LocalDateTime time = screening.getScreeningTime();
+            if (!time.isBefore(from) && time.isBefore(to)) {
+                result.add(screening);
+            }
+        }
+        return result;
+    }
+}
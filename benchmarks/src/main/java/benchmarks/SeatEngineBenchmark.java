@@ -0,0 +1,67 @@
+package benchmarks;
+
+import models.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Operacje na stanie miejsc seansu przy różnych rozmiarach sal i liczbie rezerwacji
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatEngineBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({"10x15", "25x40", "40x60"})
+    public String roomLayout;
+
+    @Param({"10", "100", "1000"})
+    public int reservationCount;
+
+    private Screening screening;
+    private List<Reservation> reservations;
+    private int[] probeRows;
+    private int[] probeSeats;
+    private int probe;
+
+    @Setup
+    public void setup() {
+        Room room = Fixtures.room(1, roomLayout);
+        Movie movie = Fixtures.movie(1);
+        screening = Fixtures.screening(1, movie, room);
+        Screening other = Fixtures.screening(2, movie, room);
+        reservations = Fixtures.reservations(screening, other, reservationCount, 42);
+
+        Random random = new Random(7);
+        probeRows = new int[PROBES];
+        probeSeats = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probeRows[i] = 1 + random.nextInt(room.getRows());
+            probeSeats[i] = 1 + random.nextInt(room.getSeatsPerRow());
+        }
+        screening.updateSeatsStatusFromReservations(reservations);
+    }
+
+    @Benchmark
+    public boolean isSeatAvailable() {
+        int i = probe++ & (PROBES - 1);
+        return screening.isSeatAvailable(probeRows[i], probeSeats[i]);
+    }
+
+    @Benchmark
+    public void updateSeatStatus() {
+        int i = probe++ & (PROBES - 1);
+        screening.updateSeatStatus(probeRows[i], probeSeats[i], (i & 1) == 0);
+    }
+
+    @Benchmark
+    public boolean[][] updateSeatsStatusFromReservations() {
+        screening.updateSeatsStatusFromReservations(reservations);
+        return screening.getAvailableSeats();
+    }
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+import metrics.ServerMetrics;
+import org.openjdk.jmh.annotations.*;
+import server.PriorityDispatcher.RequestClass;
+import server.SourceRateLimiter;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+// Koszt limitu na źródło w ścieżce odbioru: wyszukanie źródła i oba kubełki (pakiety + klasa żądań)
+// przy wielu różnych nadawcach - odpowiada pracy wątku odbierającego na jeden pakiet
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SourceRateLimiterBenchmark {
+    @Param({"100", "100000"})
+    public int sources;
+
+    private SourceRateLimiter limiter;
+    private InetAddress[] addresses;
+    private int next;
+
+    @Setup
+    public void setup() throws UnknownHostException {
+        // Limity na tyle wysokie, że mierzony jest koszt sprawdzenia, a nie odrzucania
+        double[] classRates = {1e9, 1e9, 1e9};
+        limiter = new SourceRateLimiter(1e9, classRates, 1, sources * 2, 60, new ServerMetrics());
+
+        addresses = new InetAddress[sources];
+        for (int i = 0; i < sources; i++) {
+            addresses[i] = InetAddress.getByAddress(new byte[]{10, (byte) (i >> 16), (byte) (i >> 8), (byte) i});
+            limiter.sourceOf(addresses[i], 40000);
+        }
+    }
+
+    @Benchmark
+    public long checkPacket() {
+        InetAddress address = addresses[next];
+        next = next + 1 == addresses.length ? 0 : next + 1;
+        SourceRateLimiter.Source source = limiter.sourceOf(address, 40000);
+        return limiter.acquirePacket(source) + limiter.acquire(source, RequestClass.TRANSACTIONAL);
+    }
+}
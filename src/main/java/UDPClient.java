@@ -2,14 +2,21 @@ import models.*;
 
 import java.io.*;
 import java.net.*;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class UDPClient {
     private static final int BUFFER_SIZE = 65507;
+    private static final int MAX_BUSY_RETRIES = 5;
+    private static final int RESERVATIONS_PAGE_SIZE = 50;
+    private static final int SCREENINGS_PAGE_SIZE = 50;
+    private static final int SEARCH_PAGE_SIZE = 20;
     private DatagramSocket clientSocket;
     private InetAddress serverAddress;
     private int serverPort;
     private Scanner scanner;
+    private AdmissionTicket admissionTicket; // ostatni bilet z poczekalni serwera
     
     public UDPClient(String serverHost, int serverPort) {
         try {
@@ -48,6 +55,12 @@ public class UDPClient {
                 case 5:
                     listMyReservations();
                     break;
+                case 6:
+                    listTodaysScreenings();
+                    break;
+                case 7:
+                    searchMovies();
+                    break;
                 case 0:
                     running = false;
                     System.out.println("Exiting program. Goodbye!");
@@ -67,6 +80,8 @@ public class UDPClient {
         System.out.println("3. Make reservation");
         System.out.println("4. Cancel reservation");
         System.out.println("5. List my reservations");
+        System.out.println("6. Today's screenings");
+        System.out.println("7. Search movies");
         System.out.println("0. Exit");
     }
     
@@ -96,24 +111,89 @@ public class UDPClient {
         listMovies();
         int movieId = getIntInput("\nEnter movie ID to see screenings: ");
         
-        Message request = new Message(MessageType.GET_SCREENINGS, movieId);
-        Message response = sendRequest(request);
+        ScreeningPageRequest pageRequest = ScreeningPageRequest.first(movieId, SCREENINGS_PAGE_SIZE);
+        System.out.println("\nAvailable Screenings:");
+        System.out.println("====================");
         
-        if (response != null && response.isSuccess()) {
-            List<Screening> screenings = (List<Screening>) response.getPayload();
-            System.out.println("\nAvailable Screenings:");
-            System.out.println("====================");
+        while (true) {
+            Message response = sendRequest(new Message(MessageType.GET_SCREENINGS, pageRequest));
+            if (response == null || !response.isSuccess()) {
+                System.out.println("Failed to get screenings: " + 
+                                 (response != null ? response.getStatusMessage() : "No response from server"));
+                return;
+            }
             
-            for (Screening screening : screenings) {
+            Page<ScreeningSummary> page = (Page<ScreeningSummary>) response.getPayload();
+            for (ScreeningSummary screening : page.getItems()) {
                 System.out.println("Screening ID: " + screening.getScreeningId() + 
-                                 ", Movie: " + screening.getMovie().getTitle() + 
+                                 ", Movie: " + screening.getMovieTitle() + 
                                  ", Time: " + screening.getScreeningTime() +
-                                 ", Room: " + screening.getRoom().getRoomName() +
-                                 ", Price: " + screening.getTicketPrice());
+                                 ", Room: " + screening.getRoomName() +
+                                 ", Price: " + screening.getTicketPrice() +
+                                 ", Free seats: " + screening.getAvailableSeats());
             }
-        } else {
-            System.out.println("Failed to get screenings: " + 
+            if (!page.hasNext()) {
+                return;
+            }
+            pageRequest = pageRequest.next(page);
+        }
+    }
+    
+    // Wyszukiwanie po tytule, reżyserze, gatunku, języku i roku; pierwsza strona najlepszych wyników
+    private void searchMovies() {
+        System.out.print("\nSearch: ");
+        String query = scanner.nextLine();
+        
+        Message response = sendRequest(new Message(MessageType.SEARCH_MOVIES, MovieSearchRequest.first(query, SEARCH_PAGE_SIZE)));
+        if (response == null || !response.isSuccess()) {
+            System.out.println("Search failed: " + 
                              (response != null ? response.getStatusMessage() : "No response from server"));
+            return;
+        }
+        
+        Page<MovieSummary> page = (Page<MovieSummary>) response.getPayload();
+        if (page.getItems().isEmpty()) {
+            System.out.println("No movies found for: " + query);
+            return;
+        }
+        for (MovieSummary movie : page.getItems()) {
+            System.out.println("ID: " + movie.getMovieId() + 
+                             ", Title: " + movie.getTitle() + 
+                             " (" + movie.getReleaseYear() + ")" +
+                             ", Genre: " + movie.getGenre() +
+                             ", Director: " + movie.getDirector());
+        }
+        if (page.hasNext()) {
+            System.out.println("More results available - refine your search.");
+        }
+    }
+    
+    // Repertuar na dziś - serwer zwraca tylko seanse z tego dnia, stronami
+    private void listTodaysScreenings() {
+        ScreeningTimeRequest timeRequest = ScreeningTimeRequest.day(LocalDate.now(), SCREENINGS_PAGE_SIZE);
+        System.out.println("\nToday's Screenings:");
+        System.out.println("===================");
+        
+        while (true) {
+            Message response = sendRequest(new Message(MessageType.GET_SCREENINGS_BY_DATE, timeRequest));
+            if (response == null || !response.isSuccess()) {
+                System.out.println("Failed to get screenings: " + 
+                                 (response != null ? response.getStatusMessage() : "No response from server"));
+                return;
+            }
+            
+            Page<ScreeningSummary> page = (Page<ScreeningSummary>) response.getPayload();
+            for (ScreeningSummary screening : page.getItems()) {
+                System.out.println("Screening ID: " + screening.getScreeningId() + 
+                                 ", Time: " + screening.getScreeningTime().toLocalTime() +
+                                 ", Movie: " + screening.getMovieTitle() + 
+                                 ", Room: " + screening.getRoomName() +
+                                 ", Free seats: " + screening.getAvailableSeats());
+            }
+            if (!page.hasNext()) {
+                return;
+            }
+            timeRequest = timeRequest.next(page);
         }
     }
     
@@ -149,6 +229,22 @@ public class UDPClient {
             System.out.print("Enter your phone: ");
             String customerPhone = scanner.nextLine();
             
+            // Serwer może sam wybrać najlepsze sąsiednie miejsca i od razu je zarezerwować
+            int partySize = getIntInput("Number of seats to pick automatically (0 to choose manually): ");
+            if (partySize > 0) {
+                Message bestSeatsRequest = new Message(MessageType.FIND_BEST_SEATS,
+                        new BestSeatsRequest(screeningId, partySize, customerName, customerEmail, customerPhone));
+                Message bestSeatsResponse = sendRequest(bestSeatsRequest);
+                
+                if (bestSeatsResponse != null && bestSeatsResponse.isSuccess()) {
+                    completeHold((Reservation) bestSeatsResponse.getPayload());
+                } else {
+                    System.out.println("Automatic seat selection failed: " +
+                                     (bestSeatsResponse != null ? bestSeatsResponse.getStatusMessage() : "No response from server"));
+                }
+                return;
+            }
+            
             // Get seat selections
             List<Seat> selectedSeats = new ArrayList<>();
             boolean selectingSeats = true;
@@ -182,39 +278,16 @@ public class UDPClient {
                 return;
             }
             
-            // Create reservation
-            // We need to get the screening details first
-            Message getScreeningRequest = new Message(MessageType.GET_SCREENINGS, screeningId);
-            Message getScreeningResponse = sendRequest(getScreeningRequest);
-            
-            if (getScreeningResponse == null || !getScreeningResponse.isSuccess()) {
-                System.out.println("Failed to get screening details: " + 
-                                 (getScreeningResponse != null ? getScreeningResponse.getStatusMessage() : "No response from server"));
-                return;
-            }
-            
-            List<Screening> screenings = (List<Screening>) getScreeningResponse.getPayload();
-            if (screenings.isEmpty()) {
-                System.out.println("Screening not found.");
-                return;
-            }
-            
-            Screening screening = screenings.get(0);
-            Reservation reservation = new Reservation(screening, selectedSeats, customerName, customerEmail, customerPhone);
+            // Serwer buduje rezerwację na własnym seansie - wystarczy identyfikator i upakowane miejsca
+            ReservationCommand reservation = new ReservationCommand(screeningId, selectedSeats,
+                                                                    customerName, customerEmail, customerPhone);
             
-            // Send reservation request
-            Message reservationRequest = new Message(MessageType.MAKE_RESERVATION, reservation);
-            Message reservationResponse = sendRequest(reservationRequest);
+            // Miejsca są blokowane od razu, rezerwacja wymaga potwierdzenia przed upływem blokady
+            Message holdRequest = new Message(MessageType.HOLD_SEATS, reservation);
+            Message reservationResponse = sendRequest(holdRequest);
             
             if (reservationResponse != null && reservationResponse.isSuccess()) {
-                Reservation confirmedReservation = (Reservation) reservationResponse.getPayload();
-                System.out.println("\nReservation successful!");
-                System.out.println("Reservation ID: " + confirmedReservation.getReservationId());
-                System.out.println("Movie: " + confirmedReservation.getScreening().getMovie().getTitle());
-                System.out.println("Time: " + confirmedReservation.getScreening().getScreeningTime());
-                System.out.println("Number of seats: " + confirmedReservation.getReservedSeats().size());
-                System.out.println("Total price: " + confirmedReservation.getTotalPrice());
-                System.out.println("\nPlease save your reservation ID for future reference.");
+                completeHold((Reservation) reservationResponse.getPayload());
             } else {
                 System.out.println("There was an issue with your reservation. Please check your reservations list to confirm if it was processed.");
                 System.out.println("Error: " + (reservationResponse != null ? reservationResponse.getStatusMessage() : "No response from server"));
@@ -225,6 +298,38 @@ public class UDPClient {
         }
     }
     
+    // Potwierdza albo zwalnia zablokowane miejsca
+    private void completeHold(Reservation held) {
+        System.out.println("\nSeats held until " + held.getHoldExpiresAt() + ":");
+        for (Seat seat : held.getReservedSeats()) {
+            System.out.println("  Row " + seat.getRow() + ", seat " + seat.getNumber());
+        }
+        System.out.println("Total price: " + held.getTotalPrice());
+        
+        System.out.print("Confirm reservation? (y/n): ");
+        String answer = scanner.nextLine().trim();
+        if (!answer.equalsIgnoreCase("y")) {
+            sendRequest(new Message(MessageType.CANCEL_RESERVATION, held.getReservationId()));
+            System.out.println("Seats released.");
+            return;
+        }
+        
+        Message confirmResponse = sendRequest(new Message(MessageType.CONFIRM_RESERVATION, held.getReservationId()));
+        if (confirmResponse != null && confirmResponse.isSuccess()) {
+            Reservation confirmedReservation = (Reservation) confirmResponse.getPayload();
+            System.out.println("\nReservation successful!");
+            System.out.println("Reservation ID: " + confirmedReservation.getReservationId());
+            System.out.println("Movie: " + confirmedReservation.getScreening().getMovie().getTitle());
+            System.out.println("Time: " + confirmedReservation.getScreening().getScreeningTime());
+            System.out.println("Number of seats: " + confirmedReservation.getReservedSeats().size());
+            System.out.println("Total price: " + confirmedReservation.getTotalPrice());
+            System.out.println("\nPlease save your reservation ID for future reference.");
+        } else {
+            System.out.println("Reservation could not be confirmed: " +
+                             (confirmResponse != null ? confirmResponse.getStatusMessage() : "No response from server"));
+        }
+    }
+    
     private void displaySeatMap(boolean[][] availableSeats) {
         System.out.println("\nSeat Map (O=Available, X=Occupied):");
         System.out.println("=================================");
@@ -252,16 +357,10 @@ public class UDPClient {
             String email = scanner.nextLine();
             
             // Pobierz wszystkie rezerwacje dla podanego adresu email
-            Message request = new Message(MessageType.GET_RESERVATIONS_BY_EMAIL, email);
-            Message response = sendRequest(request);
-            
-            if (response == null || !response.isSuccess()) {
-                System.out.println("Failed to get reservations: " + 
-                                 (response != null ? response.getStatusMessage() : "No response from server"));
+            List<ReservationSummary> reservations = fetchReservationsByEmail(email);
+            if (reservations == null) {
                 return;
             }
-            
-            List<Reservation> reservations = (List<Reservation>) response.getPayload();
             if (reservations.isEmpty()) {
                 System.out.println("No reservations found for email: " + email);
                 return;
@@ -272,10 +371,10 @@ public class UDPClient {
             System.out.println("=================");
             
             for (int i = 0; i < reservations.size(); i++) {
-                Reservation res = reservations.get(i);
+                ReservationSummary res = reservations.get(i);
                 System.out.println((i+1) + ". ID: " + res.getReservationId() + 
-                                 ", Movie: " + res.getScreening().getMovie().getTitle() +
-                                 ", Time: " + res.getScreening().getScreeningTime() +
+                                 ", Movie: " + res.getMovieTitle() +
+                                 ", Time: " + res.getScreeningTime() +
                                  ", Status: " + res.getStatus());
             }
             
@@ -286,7 +385,7 @@ public class UDPClient {
                 return;
             }
             
-            Reservation selectedReservation = reservations.get(choice-1);
+            ReservationSummary selectedReservation = reservations.get(choice-1);
             
             // Sprawdź, czy rezerwacja już nie jest anulowana
             if (selectedReservation.getStatus() == ReservationStatus.CANCELLED) {
@@ -296,9 +395,9 @@ public class UDPClient {
             
             // Potwierdzenie anulowania
             System.out.println("\nYou selected to cancel this reservation:");
-            System.out.println("Movie: " + selectedReservation.getScreening().getMovie().getTitle());
-            System.out.println("Time: " + selectedReservation.getScreening().getScreeningTime());
-            System.out.println("Seats: " + selectedReservation.getReservedSeats().size());
+            System.out.println("Movie: " + selectedReservation.getMovieTitle());
+            System.out.println("Time: " + selectedReservation.getScreeningTime());
+            System.out.println("Seats: " + selectedReservation.getSeatCount());
             
             System.out.print("Are you sure you want to cancel this reservation? (y/n): ");
             String confirm = scanner.nextLine();
@@ -332,40 +431,93 @@ public class UDPClient {
         System.out.print("\nEnter your email address: ");
         String email = scanner.nextLine();
         
-        Message request = new Message(MessageType.GET_RESERVATIONS_BY_EMAIL, email);
-        Message response = sendRequest(request);
+        List<ReservationSummary> reservations = fetchReservationsByEmail(email);
+        if (reservations == null) {
+            return;
+        }
+        if (reservations.isEmpty()) {
+            System.out.println("No reservations found for email: " + email);
+            return;
+        }
         
-        if (response != null && response.isSuccess()) {
-            List<Reservation> reservations = (List<Reservation>) response.getPayload();
-            if (reservations.isEmpty()) {
-                System.out.println("No reservations found for email: " + email);
-                return;
+        System.out.println("\nYour reservations:");
+        System.out.println("=================");
+        
+        for (ReservationSummary res : reservations) {
+            System.out.println("ID: " + res.getReservationId() + 
+                             ", Movie: " + res.getMovieTitle() +
+                             ", Time: " + res.getScreeningTime() +
+                             ", Status: " + res.getStatus());
+        }
+    }
+    
+    // Serwer zwraca rezerwacje stronami (każda mieści się w jednym datagramie) - pobieramy kolejne strony
+    // aż do ostatniej. null, gdy pobranie się nie powiodło (komunikat jest już wypisany).
+    private List<ReservationSummary> fetchReservationsByEmail(String email) {
+        List<ReservationSummary> reservations = new ArrayList<>();
+        EmailPageRequest pageRequest = EmailPageRequest.first(email, RESERVATIONS_PAGE_SIZE);
+        while (true) {
+            Message response = sendRequest(new Message(MessageType.GET_RESERVATIONS_BY_EMAIL, pageRequest));
+            if (response == null || !response.isSuccess()) {
+                System.out.println("Failed to get reservations: " + 
+                                 (response != null ? response.getStatusMessage() : "No response from server"));
+                return null;
             }
             
-            System.out.println("\nYour reservations:");
-            System.out.println("=================");
-            
-            for (Reservation res : reservations) {
-                System.out.println("ID: " + res.getReservationId() + 
-                                 ", Movie: " + res.getScreening().getMovie().getTitle() +
-                                 ", Time: " + res.getScreening().getScreeningTime() +
-                                 ", Status: " + res.getStatus());
+            Page<ReservationSummary> page = (Page<ReservationSummary>) response.getPayload();
+            reservations.addAll(page.getItems());
+            if (!page.hasNext()) {
+                return reservations;
             }
-        } else {
-            System.out.println("Failed to get reservations: " + 
-                             (response != null ? response.getStatusMessage() : "No response from server"));
+            pageRequest = new EmailPageRequest(email, page.getNextCursor(), RESERVATIONS_PAGE_SIZE);
         }
     }
     
+    // Gdy serwer odpowiada QUEUED (poczekalnia), czekamy wskazany czas i ponawiamy żądanie z biletem.
+    // Odpowiedź BUSY (przeciążenie) ponawiamy po wskazanym czasie z losowym rozrzutem, kilka razy.
     private Message sendRequest(Message request) {
+        int busyRetries = 0;
+        while (true) {
+            if (admissionTicket != null) {
+                request.setAdmissionTicket(admissionTicket);
+            }
+            Message response = exchange(request);
+            if (response != null && response.isBusy() && busyRetries++ < MAX_BUSY_RETRIES) {
+                long retryAfter = response.getRetryAfterMillis();
+                System.out.printf("Server busy, retrying in %.1f s...%n", retryAfter / 1000.0);
+                try {
+                    Thread.sleep(retryAfter + ThreadLocalRandom.current().nextLong(retryAfter / 2 + 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return response;
+                }
+                continue;
+            }
+            if (response == null || !response.isQueued()) {
+                return response;
+            }
+            
+            admissionTicket = (AdmissionTicket) response.getPayload();
+            long retryAfter = admissionTicket.getRetryAfterMillis();
+            if (retryAfter > 0) {
+                System.out.printf("Waiting room: you are number %d in the queue, retrying in %.1f s...%n",
+                                  admissionTicket.getPosition() + 1, retryAfter / 1000.0);
+                try {
+                    Thread.sleep(retryAfter);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return response;
+                }
+            }
+        }
+    }
+    
+    private Message exchange(Message request) {
         try {
             // Serialize the request
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ObjectOutputStream oos = new ObjectOutputStream(baos);
-            oos.writeObject(request);
+            byte[] sendData = MessageCodec.encode(request);
             
             // Send the request
-            byte[] sendData = baos.toByteArray();
             DatagramPacket sendPacket = new DatagramPacket(sendData, sendData.length, serverAddress, serverPort);
             clientSocket.send(sendPacket);
             
@@ -378,9 +530,7 @@ public class UDPClient {
             clientSocket.receive(receivePacket);
             
             // Deserialize the response
-            ByteArrayInputStream bais = new ByteArrayInputStream(receivePacket.getData(), 0, receivePacket.getLength());
-            ObjectInputStream ois = new ObjectInputStream(bais);
-            return (Message) ois.readObject();
+            return MessageCodec.decode(receivePacket.getData(), 0, receivePacket.getLength());
             
         } catch (SocketTimeoutException e) {
             System.out.println("Server did not respond. Please try again later.");
@@ -1,17 +1,41 @@
+import capture.CaptureRecord;
+import capture.CaptureWriter;
 import dao.*;
+import jfr.RequestContext;
+import jfr.RequestStageEvent;
+import logging.Log;
+import logging.Logger;
+import metrics.ServerMetrics;
+import metrics.StatsDumper;
 import models.*;
+import server.AvailabilityChecker;
+import server.BestSeatFinder;
+import server.HoldExpiryWheel;
+import server.LoadShedder;
+import server.MovieSearchIndex;
+import server.PriorityDispatcher;
+import server.PriorityDispatcher.RequestClass;
+import server.RoomSchedule;
+import server.SalesAnalytics;
+import server.ScreeningTimeIndex;
+import server.SourceRateLimiter;
+import server.WaitingRoom;
 
 import java.io.*;
 import java.net.*;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class UDPServer {
+    private static final Logger LOG = Log.getLogger(UDPServer.class);
     private static final int BUFFER_SIZE = 65507; // Maksymalny rozmiar datagramu UDP
+    private static final String[] DROP_COUNTERS = dropCounters();
     private DatagramSocket serverSocket;
     private int port;
     private boolean running;
@@ -21,6 +45,32 @@ public class UDPServer {
     private List<Room> rooms;
     private List<Screening> screenings;
     private List<Reservation> reservations;
+    private final Map<Integer, Screening> screeningsById = new ConcurrentHashMap<>();
+    private ScreeningTimeIndex screeningTimes;
+    private MovieSearchIndex movieSearch;
+    
+    // Zajętość sal (czas filmu + sprzątanie) - sprawdzanie kolizji przy imporcie planu i wolne okna
+    private final int cleaningMinutes = Integer.getInteger("cinema.schedule.cleaningMinutes", 15);
+    private final RoomSchedule roomSchedule = new RoomSchedule(cleaningMinutes);
+    private final AtomicInteger nextScreeningId = new AtomicInteger(1);
+    
+    // Indeksy w pamięci dla zapytań o pojedyncze obiekty - bez zapytań do bazy.
+    // Lista rezerwacji tylko rośnie, więc pozycja na liście jest stabilnym kursorem stronicowania.
+    private final Map<String, Reservation> reservationsById = new ConcurrentHashMap<>();
+    // Znormalizowany email -> identyfikatory rezerwacji w kolejności dodania (też tylko dopisywane)
+    private final Map<String, List<String>> reservationIdsByEmail = new ConcurrentHashMap<>();
+    private final Map<Integer, RoomLayout> roomLayouts = new ConcurrentHashMap<>();
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    // Blokady miejsc (rezerwacje PENDING) - tylko w pamięci, do bazy trafiają po potwierdzeniu
+    private final Map<String, Reservation> pendingHolds = new ConcurrentHashMap<>();
+    private final long holdTtlMillis = Long.getLong("cinema.hold.ttlSeconds", 600L) * 1000;
+    private final HoldExpiryWheel holdWheel =
+            new HoldExpiryWheel(Long.getLong("cinema.hold.tickMillis", 100L), 1024, this::expireHold);
+    // Wygasłe blokady pamiętane jeszcze przez pewien czas - CONFIRM_RESERVATION odróżnia wygasłą blokadę
+    // od nieznanego identyfikatora. Usuwa je to samo koło czasowe.
+    private final Map<String, Reservation> expiredHolds = new ConcurrentHashMap<>();
+    private final long expiredHoldRetentionMillis = Long.getLong("cinema.hold.expiredRetentionSeconds", 600L) * 1000;
     
     // Database access
     private DatabaseManager dbManager;
@@ -29,21 +79,85 @@ public class UDPServer {
     private ScreeningDAO screeningDAO;
     private ReservationDAO reservationDAO;
     
+    // Poczekalnia dla popularnych seansów (null, gdy wyłączona)
+    private final WaitingRoom waitingRoom = WaitingRoom.fromSystemProperties(this::isScreeningOpen);
+    
+    // Metrics
+    private final ServerMetrics metrics = new ServerMetrics();
+    // Sumy sprzedaży (bilety, przychód, obłożenie) aktualizowane przy potwierdzeniu i anulowaniu rezerwacji
+    private final SalesAnalytics analytics = new SalesAnalytics();
+    private StatsDumper statsDumper;
+    
+    // Kolejki żądań per klasa i pula wątków roboczych
+    private PriorityDispatcher dispatcher;
+    private LoadShedder loadShedder;
+    private SourceRateLimiter rateLimiter;
+    
+    // Przechwytywanie ruchu (null, gdy wyłączone)
+    private CaptureWriter capture;
+    
     public UDPServer(int port) {
+        this(port, new DatabaseManager());
+    }
+    
+    public UDPServer(int port, DatabaseManager dbManager) {
         this.port = port;
+        this.dbManager = dbManager;
         this.movies = new ArrayList<>();
         this.rooms = new ArrayList<>();
         this.screenings = new ArrayList<>();
-        this.reservations = new ArrayList<>();
+        this.reservations = new CopyOnWriteArrayList<>();
         
         // Initialize database connection
         initializeDatabase();
+        
+        // Import planu dopisuje seanse w trakcie działania, równolegle z odczytami listy
+        screenings = new CopyOnWriteArrayList<>(screenings);
+        for (Screening screening : screenings) {
+            screeningsById.put(screening.getScreeningId(), screening);
+            nextScreeningId.accumulateAndGet(screening.getScreeningId() + 1, Math::max);
+            
+            Screening conflict = roomSchedule.findConflict(screening.getRoom().getRoomId(),
+                    screening.getScreeningTime(), screening.getMovie().getDuration());
+            if (conflict != null) {
+                LOG.warn("Screening {} overlaps screening {} in room {}", screening.getScreeningId(),
+                         conflict.getScreeningId(), screening.getRoom().getRoomId());
+            }
+            roomSchedule.add(screening);
+            analytics.addScreening(screening);
+        }
+        screeningTimes = new ScreeningTimeIndex(screenings);
+        movieSearch = new MovieSearchIndex(movies);
+        for (Reservation reservation : reservations) {
+            indexReservation(reservation);
+        }
+        // Układ sali nie zmienia się w trakcie działania - jeden gotowy egzemplarz na salę
+        for (Room room : rooms) {
+            roomLayouts.put(room.getRoomId(), RoomLayout.of(room));
+        }
+        
+        // Rezerwacje wskazują na seanse serwera; stan miejsc liczony jest raz,
+        // a dalej aktualizowany przy każdej rezerwacji, anulowaniu i wygaśnięciu blokady
+        for (Reservation reservation : reservations) {
+            Screening screening = reservation.getScreening() != null
+                    ? screeningsById.get(reservation.getScreening().getScreeningId()) : null;
+            if (screening != null) {
+                reservation.setScreening(screening);
+            }
+        }
+        for (Screening screening : screenings) {
+            screening.updateSeatsStatusFromReservations(reservations);
+        }
+        for (Reservation reservation : reservations) {
+            if (reservation.getStatus() == ReservationStatus.CONFIRMED && reservation.getScreening() != null) {
+                analytics.confirmed(reservation);
+            }
+        }
     }
     
     private void initializeDatabase() {
         try {
-            // Create database manager and initialize the database
-            this.dbManager = new DatabaseManager();
+            // Initialize the database
             dbManager.initDatabase();
             
             // Get connection for DAOs
@@ -57,8 +171,7 @@ public class UDPServer {
             loadDataFromDatabase();
             
         } catch (SQLException e) {
-            System.err.println("Failed to initialize database: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Failed to initialize database", e);
             
             // If database initialization fails, use sample data
             initializeTestData();
@@ -71,17 +184,16 @@ public class UDPServer {
             movies = movieDAO.findAll();
             rooms = roomDAO.findAll();
             screenings = screeningDAO.findAll();
-            reservations = reservationDAO.findAll();
+            reservations = new CopyOnWriteArrayList<>(reservationDAO.findAll());
             
             // If no data in database, initialize with test data
             if (movies.isEmpty()) {
-                System.out.println("No data found in database. Initializing with test data.");
+                LOG.info("No data found in database. Initializing with test data.");
                 initializeTestData();
                 saveDataToDatabase();
             }
         } catch (SQLException e) {
-            System.err.println("Error loading data from database: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error loading data from database", e);
             
             // If loading fails, use sample data
             initializeTestData();
@@ -107,8 +219,7 @@ public class UDPServer {
                 reservationDAO.insert(reservation);
             }
         } catch (SQLException e) {
-            System.err.println("Error saving data to database: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error saving data to database", e);
         }
     }
     
@@ -116,165 +227,584 @@ public class UDPServer {
         try {
             serverSocket = new DatagramSocket(port);
             running = true;
-            System.out.println("Server started on port " + port);
+            LOG.info("Server started on port {}", port);
+            
+            statsDumper = new StatsDumper(metrics);
+            statsDumper.start();
+            holdWheel.start();
+            dispatcher = PriorityDispatcher.fromSystemProperties(metrics);
+            dispatcher.start();
+            loadShedder = LoadShedder.fromSystemProperties(dispatcher);
+            rateLimiter = SourceRateLimiter.fromSystemProperties(metrics);
+            if (rateLimiter != null) {
+                rateLimiter.start();
+            }
+            
+            try {
+                capture = CaptureWriter.fromSystemProperties();
+                if (capture != null) {
+                    LOG.info("Capturing traffic to {}", System.getProperty("cinema.capture"));
+                }
+            } catch (IOException e) {
+                LOG.error("Cannot open capture file, capture disabled", e);
+            }
             
             byte[] receiveBuffer = new byte[BUFFER_SIZE];
             
             while (running) {
                 DatagramPacket receivePacket = new DatagramPacket(receiveBuffer, receiveBuffer.length);
                 serverSocket.receive(receivePacket); // Blocks until packet is received
+                metrics.recordPacketReceived(receivePacket.getLength());
+                
+                if (capture != null) {
+                    capture.record(CaptureRecord.INBOUND, receivePacket.getAddress(), receivePacket.getPort(),
+                                   receivePacket.getData(), 0, receivePacket.getLength());
+                }
+                
+                // Źródło przekraczające swój limit pakietów odrzucamy przed deserializacją
+                SourceRateLimiter.Source source = null;
+                if (rateLimiter != null) {
+                    source = rateLimiter.sourceOf(receivePacket.getAddress(), receivePacket.getPort());
+                    long limited = rateLimiter.acquirePacket(source);
+                    if (limited != 0) {
+                        if (limited > 0) {
+                            sendBusy(receivePacket.getAddress(), receivePacket.getPort(), limited);
+                        }
+                        continue;
+                    }
+                }
+                
+                // Nagłówek ramki i suma kontrolna - uszkodzone i obce pakiety odpadają bez alokacji
+                MessageCodec.DropReason invalid = MessageCodec.validate(receivePacket.getData(), 0, receivePacket.getLength());
+                if (invalid != null) {
+                    metrics.increment(DROP_COUNTERS[invalid.ordinal()]);
+                    continue;
+                }
+                
+                // Typ z nagłówka wyznacza klasę żądania, więc limit klasy też odbywa się bez deserializacji
+                RequestClass requestClass = RequestClass.of(MessageCodec.typeOf(receivePacket.getData(), 0));
+                if (source != null) {
+                    long limited = rateLimiter.acquire(source, requestClass);
+                    if (limited != 0) {
+                        if (limited > 0) {
+                            sendBusy(receivePacket.getAddress(), receivePacket.getPort(), limited);
+                        }
+                        continue;
+                    }
+                }
+                
+                // Przy przeciążeniu odpowiadamy od razu, bez deserializacji żądania
+                long retryAfter = loadShedder.retryAfterMillis();
+                if (retryAfter > 0) {
+                    metrics.increment("shed.busy");
+                    sendBusy(receivePacket.getAddress(), receivePacket.getPort(), retryAfter);
+                    continue;
+                }
                 
-                // Process received data in a new thread
-                new Thread(() -> processReceivedPacket(receivePacket)).start();
+                dispatch(receivePacket, requestClass);
             }
         } catch (IOException e) {
-            System.err.println("Error in server: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error in server", e);
         } finally {
+            if (dispatcher != null) {
+                dispatcher.stop();
+            }
+            if (rateLimiter != null) {
+                rateLimiter.stop();
+            }
             if (serverSocket != null && !serverSocket.isClosed()) {
                 serverSocket.close();
             }
         }
     }
     
-    private void processReceivedPacket(DatagramPacket packet) {
+    // Liczniki odrzuconych pakietów per powód, np. packets.dropped.bad_checksum
+    private static String[] dropCounters() {
+        MessageCodec.DropReason[] reasons = MessageCodec.DropReason.values();
+        String[] counters = new String[reasons.length];
+        for (MessageCodec.DropReason reason : reasons) {
+            counters[reason.ordinal()] = "packets.dropped." + reason.name().toLowerCase();
+        }
+        return counters;
+    }
+    
+    // Dekodowanie odbywa się w wątku odbierającym, zanim bufor zostanie nadpisany kolejnym pakietem
+    private void dispatch(DatagramPacket packet, RequestClass requestClass) {
+        long receivedAt = System.nanoTime();
+        int length = packet.getLength();
+        Message request;
+        try {
+            RequestStageEvent decodeEvent = new RequestStageEvent(RequestStageEvent.DECODE);
+            decodeEvent.begin();
+            request = MessageCodec.decode(packet.getData(), 0, length);
+            commitStage(decodeEvent, request, length);
+        } catch (InvalidFrameException e) {
+            metrics.recordDecodeError();
+            metrics.increment(DROP_COUNTERS[e.getReason().ordinal()]);
+            LOG.debug("Dropped packet from {}: {}", packet.getAddress(), e.getMessage());
+            return;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            metrics.recordDecodeError();
+            metrics.increment(DROP_COUNTERS[MessageCodec.DropReason.MALFORMED.ordinal()]);
+            // Uszkodzone treści może wysyłać każdy - bez śladu stosu, tak jak odrzucone nagłówki
+            LOG.debug("Dropped malformed packet from {}: {}", packet.getAddress(), e.toString());
+            return;
+        }
+        
+        // Klasa została wyznaczona z nagłówka - komunikat innego typu niż zadeklarowany nie przechodzi
+        if (request.getType() != MessageCodec.typeOf(packet.getData(), 0)) {
+            metrics.increment(DROP_COUNTERS[MessageCodec.DropReason.BAD_TYPE.ordinal()]);
+            return;
+        }
+        
+        LOG.debug("Received request: {}", request.getType());
+        InetAddress address = packet.getAddress();
+        int port = packet.getPort();
+        
+        // Etap RECEIVE trwa od przyjęcia żądania do kolejki do rozpoczęcia jego obsługi w wątku roboczym
+        RequestStageEvent receiveEvent = new RequestStageEvent(RequestStageEvent.RECEIVE);
+        receiveEvent.begin();
+        
+        metrics.requestQueued();
+        boolean accepted = dispatcher.submit(requestClass,
+                () -> handleRequest(request, length, address, port, receiveEvent, receivedAt));
+        if (!accepted) {
+            metrics.requestFinished();
+            LOG.debug("Dropped {} request - {} queue is full", request.getType(), requestClass);
+        }
+    }
+    
+    private void handleRequest(Message request, int length, InetAddress address, int port,
+                               RequestStageEvent receiveEvent, long receivedAt) {
+        commitStage(receiveEvent, request, length);
+        RequestContext.enter(request.getType().name(), screeningIdOf(request), request.getRequestId(), length);
         try {
-            // Deserialize the message
-            ByteArrayInputStream bais = new ByteArrayInputStream(packet.getData(), 0, packet.getLength());
-            ObjectInputStream ois = new ObjectInputStream(bais);
-            Message request = (Message) ois.readObject();
-            
-            System.out.println("Received request: " + request.getType());
-            
             // Process the request and create response
+            RequestStageEvent processEvent = new RequestStageEvent(RequestStageEvent.PROCESS);
+            processEvent.begin();
             Message response = processRequest(request);
+            commitStage(processEvent, request, length);
             
             // Send response back to client
-            sendResponse(response, packet.getAddress(), packet.getPort());
-            
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println("Error processing packet: " + e.getMessage());
-            e.printStackTrace();
+            sendResponse(request, response, address, port);
+            metrics.recordRequest(request.getType(), outcomeOf(response), System.nanoTime() - receivedAt);
+        } finally {
+            RequestContext.exit();
+            metrics.requestFinished();
         }
     }
     
     private boolean createReservation(Reservation reservation) {
         try {
-            System.out.println("Processing reservation request...");
-            
-            // Upewnij się, że screening istnieje i jest prawidłowy
             Screening screening = reservation.getScreening();
-            if (screening == null) {
-                System.out.println("Screening is null");
-                return false;
-            }
             
-            // Sprawdź, czy film i sala istnieją
-            if (screening.getMovie() == null || screening.getRoom() == null) {
-                System.out.println("Movie or Room is null in the screening");
-                return false;
+            // Sprawdzenie i zajęcie miejsc pod blokadą seansu - dwie równoległe rezerwacje nie dostaną tego samego miejsca
+            synchronized (screening) {
+                if (!reserveSeats(screening, reservation)) {
+                    return false;
+                }
             }
             
-            List<Seat> seats = reservation.getReservedSeats();
-            if (seats == null || seats.isEmpty()) {
-                System.out.println("No seats selected");
-                return false;
+            saveReservation(reservation);
+            return true;
+        } catch (Exception e) {
+            LOG.error("Unexpected error in createReservation", e);
+            return false;
+        }
+    }
+    
+    // Rezerwacja zbudowana na seansie serwera z żądania klienta albo null, gdy dane są niepoprawne.
+    // Pełna rezerwacja (dawny format żądania) jest sprowadzana do ReservationCommand.
+    private Reservation reservationFrom(Object payload) {
+        ReservationCommand command = null;
+        if (payload instanceof ReservationCommand) {
+            command = (ReservationCommand) payload;
+        } else if (payload instanceof Reservation && ((Reservation) payload).getScreening() != null) {
+            command = ReservationCommand.from((Reservation) payload);
+        }
+        if (command == null) {
+            LOG.debug("Invalid reservation payload");
+            return null;
+        }
+        
+        Screening screening = screeningsById.get(command.getScreeningId());
+        if (screening == null) {
+            LOG.debug("Screening {} not found", command.getScreeningId());
+            return null;
+        }
+        
+        // Sprawdź, czy film i sala istnieją
+        if (screening.getMovie() == null || screening.getRoom() == null) {
+            LOG.debug("Movie or Room is null in the screening");
+            return null;
+        }
+        
+        if (!command.hasValidSeats(screening.getRoom())) {
+            LOG.debug("Invalid seat selection for screening {}", command.getScreeningId());
+            return null;
+        }
+        return new Reservation(screening, command.getSeats(), command.getCustomerName(),
+                               command.getCustomerEmail(), command.getCustomerPhone());
+    }
+    
+    // Wywoływane pod blokadą seansu
+    private boolean seatsAvailable(Screening screening, List<Seat> seats) {
+        for (Seat seat : seats) {
+            if (!screening.isSeatAvailable(seat.getRow(), seat.getNumber())) {
+                LOG.debug("Seat {}-{} is not available.", seat.getRow(), seat.getNumber());
+                return false; // Miejsce niedostępne
             }
-            
-            // Sprawdzenie dostępności miejsc
-            for (Seat seat : seats) {
-                if (!screening.isSeatAvailable(seat.getRow(), seat.getNumber())) {
-                    System.out.println("Seat " + seat.getRow() + "-" + seat.getNumber() + " is not available.");
-                    return false; // Miejsce niedostępne
-                }
+        }
+        return true;
+    }
+    
+    // Wywoływane pod blokadą seansu
+    private boolean reserveSeats(Screening screening, Reservation reservation) {
+        if (!seatsAvailable(screening, reservation.getReservedSeats())) {
+            return false;
+        }
+        
+        // Wszystkie miejsca są dostępne, zarezerwuj je
+        reservation.confirmReservation();
+        addReservation(reservation);
+        analytics.confirmed(reservation);
+        return true;
+    }
+    
+    // Wywoływane pod blokadą seansu. Miejsca są zajęte od razu, rezerwacja czeka na CONFIRM_RESERVATION.
+    private boolean placeHold(Screening screening, Reservation reservation) {
+        if (!seatsAvailable(screening, reservation.getReservedSeats())) {
+            return false;
+        }
+        
+        long expiresAt = System.currentTimeMillis() + holdTtlMillis;
+        reservation.holdSeats(LocalDateTime.now().plusNanos(holdTtlMillis * 1_000_000));
+        pendingHolds.put(reservation.getReservationId(), reservation);
+        holdWheel.schedule(reservation.getReservationId(), expiresAt);
+        metrics.increment("holds.placed");
+        return true;
+    }
+    
+    private Message holdSeats(Message request, Reservation reservation) {
+        Screening screening = reservation.getScreening();
+        synchronized (screening) {
+            if (!placeHold(screening, reservation)) {
+                return request.createErrorResponse("Seats not available");
             }
+        }
+        LOG.debug("Reservation {} held until {}", reservation.getReservationId(), reservation.getHoldExpiresAt());
+        return request.createSuccessResponse(reservation);
+    }
+    
+    private Message confirmHold(Message request, String reservationId) {
+        Reservation held = pendingHolds.get(reservationId);
+        if (held == null) {
+            return request.createErrorResponse(expiredHolds.containsKey(reservationId)
+                    ? "Hold expired" : "Hold not found");
+        }
+        
+        synchronized (held.getScreening()) {
+            // Koło czasowe mogło wygasić blokadę w międzyczasie (albo klient ją anulował)
+            if (!pendingHolds.remove(reservationId, held)) {
+                return request.createErrorResponse(held.getStatus() == ReservationStatus.EXPIRED
+                        ? "Hold expired" : "Hold not found");
+            }
+            // Koło działa co takt - blokada po terminie, ale jeszcze nieprzetworzona, też jest nieważna
+            if (held.getHoldExpiresAt().isBefore(LocalDateTime.now())) {
+                markExpired(held);
+                return request.createErrorResponse("Hold expired");
+            }
+            held.confirmReservation();
+            addReservation(held);
+            analytics.confirmed(held);
+        }
+        
+        metrics.increment("holds.confirmed");
+        saveReservation(held);
+        return request.createSuccessResponse(held);
+    }
+    
+    // Wywoływane przez koło czasowe; potwierdzone i anulowane blokady są już usunięte z mapy.
+    // Drugie wywołanie dla wygasłej blokady (po czasie przechowywania) usuwa ją z expiredHolds.
+    private void expireHold(String reservationId) {
+        Reservation held = pendingHolds.get(reservationId);
+        if (held == null) {
+            forgetExpiredHold(reservationId);
+            return;
+        }
+        synchronized (held.getScreening()) {
+            if (pendingHolds.remove(reservationId, held)) {
+                markExpired(held);
+                LOG.debug("Hold {} expired", reservationId);
+            }
+        }
+    }
+    
+    // Wywoływane pod blokadą seansu, po usunięciu blokady z pendingHolds
+    private void markExpired(Reservation held) {
+        held.expireHold();
+        metrics.increment("holds.expired");
+        expiredHolds.put(held.getReservationId(), held);
+        holdWheel.schedule(held.getReservationId(), System.currentTimeMillis() + expiredHoldRetentionMillis);
+    }
+    
+    // Pierwotny termin blokady wygaszonej przez confirmHold też tu trafia - wtedy jej jeszcze nie usuwamy
+    private void forgetExpiredHold(String reservationId) {
+        Reservation expired = expiredHolds.get(reservationId);
+        if (expired != null && !expired.getHoldExpiresAt().plusNanos(expiredHoldRetentionMillis * 1_000_000)
+                                        .isAfter(LocalDateTime.now())) {
+            expiredHolds.remove(reservationId, expired);
+        }
+    }
+    
+    private void addReservation(Reservation reservation) {
+        reservations.add(reservation);
+        indexReservation(reservation);
+    }
+    
+    private void indexReservation(Reservation reservation) {
+        reservationsById.put(reservation.getReservationId(), reservation);
+        String emailKey = Reservation.emailKey(reservation.getCustomerEmail());
+        if (emailKey != null) {
+            reservationIdsByEmail.computeIfAbsent(emailKey, k -> new CopyOnWriteArrayList<>())
+                                 .add(reservation.getReservationId());
+        }
+    }
+    
+    private void saveReservation(Reservation reservation) {
+        // Zapisz do bazy danych
+        try {
+            long daoStart = System.nanoTime();
+            reservationDAO.insert(reservation);
+            metrics.recordDao("reservation.insert", System.nanoTime() - daoStart);
+            LOG.info("Reservation {} confirmed", reservation.getReservationId());
+        } catch (SQLException e) {
+            LOG.error("SQL Error saving reservation {}", reservation.getReservationId(), e);
             
-            // Wszystkie miejsca są dostępne, zarezerwuj je
-            reservation.confirmReservation();
-            reservations.add(reservation);
-            System.out.println("Reservation confirmed in memory: " + reservation.getReservationId());
-            
-            // Zapisz do bazy danych
-            try {
-                reservationDAO.insert(reservation);
-                System.out.println("Reservation saved to database: " + reservation.getReservationId());
-                return true;
-            } catch (SQLException e) {
-                System.err.println("SQL Error saving reservation: " + e.getMessage());
-                e.printStackTrace();
-                System.err.println("SQL State: " + e.getSQLState() + ", Error Code: " + e.getErrorCode());
-                
-                // Mimo błędu bazy danych, zwracamy true, jeśli udało się dodać rezerwację do pamięci
-                // To może wyjaśniać, dlaczego widzimy rezerwacje w liście, mimo błędu
-                System.out.println("Reservation was added to memory but not to database");
-                return true; // Warto rozważyć zmianę na false, jeśli integralność bazy danych jest ważna
+            // Mimo błędu bazy danych rezerwacja pozostaje w pamięci
+            // To może wyjaśniać, dlaczego widzimy rezerwacje w liście, mimo błędu
+            LOG.warn("Reservation {} was added to memory but not to database", reservation.getReservationId());
+        }
+    }
+    
+    private Message findBestSeats(Message request, BestSeatsRequest seatsRequest) {
+        Screening screening = screeningsById.get(seatsRequest.getScreeningId());
+        if (screening == null) {
+            return request.createErrorResponse("Screening not found");
+        }
+        int partySize = seatsRequest.getPartySize();
+        if (partySize < 1 || partySize > screening.getRoom().getSeatsPerRow()) {
+            return request.createErrorResponse("Invalid party size");
+        }
+        if (seatsRequest.isHold() && (seatsRequest.getCustomerName() == null || seatsRequest.getCustomerEmail() == null)) {
+            return request.createErrorResponse("Customer details required to hold seats");
+        }
+        
+        Reservation reservation;
+        synchronized (screening) {
+            List<Seat> seats = BestSeatFinder.find(screening, partySize);
+            if (seats == null) {
+                return request.createErrorResponse("No " + partySize + " adjacent seats available");
             }
-        } catch (Exception e) {
-            System.err.println("Unexpected error in createReservation: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+            if (!seatsRequest.isHold()) {
+                return request.createSuccessResponse(seats);
+            }
+            
+            // Znalezione miejsca blokujemy bez zwalniania blokady seansu - nikt nie zajmie ich w międzyczasie
+            reservation = new Reservation(screening, seats, seatsRequest.getCustomerName(),
+                                          seatsRequest.getCustomerEmail(), seatsRequest.getCustomerPhone());
+            placeHold(screening, reservation);
         }
+        return request.createSuccessResponse(reservation);
     }
     
     // Poprawiony processRequest z obsługą wyjątków
-    private Message processRequest(Message request) {
+    Message processRequest(Message request) {
         try {
+            Message queued = checkAdmission(request);
+            if (queued != null) {
+                return queued;
+            }
+            
             switch (request.getType()) {
                 case GET_MOVIES:
                     return request.createSuccessResponse(movies);
                     
-                case GET_SCREENINGS:
+                case GET_SCREENINGS: {
+                    // Lista zawiera tylko podsumowania - pełny seans zwraca GET_SCREENING. Po imporcie planu
+                    // cały repertuar nie mieści się w datagramie, więc odpowiedź to zawsze strona.
+                    // Sam identyfikator filmu albo brak ładunku (dawny format) oznacza pierwszą stronę.
+                    ScreeningPageRequest pageRequest = request.getPayload() instanceof ScreeningPageRequest
+                            ? (ScreeningPageRequest) request.getPayload()
+                            : ScreeningPageRequest.first(request.getPayload() instanceof Integer
+                                    ? (Integer) request.getPayload() : 0, MAX_PAGE_SIZE);
+                    return request.createSuccessResponse(screeningPage(pageRequest));
+                }
+                    
+                case GET_SCREENINGS_BY_DATE: {
+                    // Sama data oznacza pierwszą stronę seansów z tego dnia
+                    ScreeningTimeRequest timeRequest = request.getPayload() instanceof LocalDate
+                            ? ScreeningTimeRequest.day(ScreeningTimeIndex.clamp(
+                                    ((LocalDate) request.getPayload()).atStartOfDay()).toLocalDate(), MAX_PAGE_SIZE)
+                            : request.getPayload() instanceof ScreeningTimeRequest
+                            ? (ScreeningTimeRequest) request.getPayload() : null;
+                    if (timeRequest == null || timeRequest.getFrom() == null || timeRequest.getTo() == null) {
+                        return request.createErrorResponse("Invalid time range");
+                    }
+                    return request.createSuccessResponse(screeningTimePage(timeRequest));
+                }
+                    
+                case SEARCH_MOVIES: {
+                    // Sam tekst oznacza pierwszą stronę wyników
+                    MovieSearchRequest searchRequest = request.getPayload() instanceof String
+                            ? MovieSearchRequest.first((String) request.getPayload(), MAX_PAGE_SIZE)
+                            : request.getPayload() instanceof MovieSearchRequest
+                            ? (MovieSearchRequest) request.getPayload() : null;
+                    if (searchRequest == null || searchRequest.getQuery() == null) {
+                        return request.createErrorResponse("Invalid search query");
+                    }
+                    return request.createSuccessResponse(movieSearchPage(searchRequest));
+                }
+                    
+                case GET_FREE_SLOTS:
+                    if (request.getPayload() instanceof FreeSlotsQuery) {
+                        FreeSlotsQuery query = (FreeSlotsQuery) request.getPayload();
+                        if (!roomLayouts.containsKey(query.getRoomId())) {
+                            return request.createErrorResponse("Room not found");
+                        }
+                        // Dzień musi leżeć w zakresie kluczy planu sal (lata 1970-2106)
+                        if (query.getDate() == null || query.getDate().isBefore(ScreeningTimeIndex.MIN_TIME.toLocalDate())
+                                || !query.getDate().isBefore(ScreeningTimeIndex.MAX_TIME.toLocalDate())) {
+                            return request.createErrorResponse("Invalid date");
+                        }
+                        return request.createSuccessResponse(
+                                roomSchedule.freeSlots(query.getRoomId(), query.getDate(), Math.max(0, query.getMinutes())));
+                    }
+                    return request.createErrorResponse("Invalid free slots query");
+                    
+                case IMPORT_SCHEDULE:
+                    if (request.getPayload() instanceof ScheduleImport && ((ScheduleImport) request.getPayload()).isWellFormed()) {
+                        return importSchedule(request, (ScheduleImport) request.getPayload());
+                    }
+                    return request.createErrorResponse("Invalid schedule");
+                    
+                case GET_SCREENING:
                     if (request.getPayload() instanceof Integer) {
-                        Integer movieId = (Integer) request.getPayload();
-                        List<Screening> movieScreenings = screenings.stream()
-                            .filter(s -> s.getMovie().getMovieId() == movieId)
-                            .toList();
-                        return request.createSuccessResponse(movieScreenings);
+                        Screening screening = screeningsById.get((Integer) request.getPayload());
+                        if (screening == null) {
+                            return request.createErrorResponse("Screening not found");
+                        }
+                        return request.createSuccessResponse(screening);
                     }
-                    return request.createSuccessResponse(screenings);
+                    return request.createErrorResponse("Invalid screening ID");
+                    
+
+                case GET_ROOM:
+                    if (request.getPayload() instanceof Integer) {
+                        RoomLayout layout = roomLayouts.get((Integer) request.getPayload());
+                        if (layout == null) {
+                            return request.createErrorResponse("Room not found");
+                        }
+                        return request.createSuccessResponse(layout);
+                    }
+                    return request.createErrorResponse("Invalid room ID");
+                    
+                case GET_SEAT_STATUS:
+                    // Ładunek: {screeningId, rząd, miejsce}
+                    if (request.getPayload() instanceof int[] && ((int[]) request.getPayload()).length == 3) {
+                        return seatStatus(request, (int[]) request.getPayload());
+                    }
+                    return request.createErrorResponse("Invalid seat");
+                    
+                case GET_RESERVATION_STATUS:
+                    if (request.getPayload() instanceof String) {
+                        String reservationId = (String) request.getPayload();
+                        Reservation reservation = pendingHolds.get(reservationId);
+                        if (reservation == null) {
+                            reservation = reservationsById.get(reservationId);
+                        }
+                        if (reservation == null) {
+                            reservation = expiredHolds.get(reservationId);
+                        }
+                        if (reservation == null) {
+                            return request.createErrorResponse("Reservation not found");
+                        }
+                        return request.createSuccessResponse(reservation.getStatus());
+                    }
+                    return request.createErrorResponse("Invalid reservation ID");
+                    
+                case GET_RESERVATIONS: {
+                    PageRequest pageRequest = request.getPayload() instanceof PageRequest
+                            ? (PageRequest) request.getPayload() : PageRequest.first(MAX_PAGE_SIZE);
+                    return request.createSuccessResponse(reservationPage(pageRequest));
+                }
+                    
+                case CHECK_AVAILABILITY:
+                    if (request.getPayload() instanceof AvailabilityQuery) {
+                        return request.createSuccessResponse(
+                                AvailabilityChecker.check((AvailabilityQuery) request.getPayload(), screeningsById::get));
+                    }
+                    return request.createErrorResponse("Invalid availability query");
+                    
+                case GET_SEAT_COUNTS:
+                    // Liczniki utrzymywane przy każdej zmianie miejsc - bez przeglądania map miejsc.
+                    // Wybrane seanse (najwyżej SeatCounts.MAX_SCREENINGS) albo strona wszystkich seansów;
+                    // brak ładunku oznacza pierwszą stronę.
+                    if (request.getPayload() instanceof int[]) {
+                        int[] screeningIds = (int[]) request.getPayload();
+                        if (screeningIds.length > SeatCounts.MAX_SCREENINGS) {
+                            return request.createErrorResponse(
+                                    "Too many screenings (max " + SeatCounts.MAX_SCREENINGS + ")");
+                        }
+                        List<Screening> requested = new ArrayList<>(screeningIds.length);
+                        for (int screeningId : screeningIds) {
+                            Screening screening = screeningsById.get(screeningId);
+                            if (screening != null) {
+                                requested.add(screening);
+                            }
+                        }
+                        return request.createSuccessResponse(seatCountsOf(requested));
+                    }
+                    if (request.getPayload() == null || request.getPayload() instanceof PageRequest) {
+                        PageRequest pageRequest = request.getPayload() != null
+                                ? (PageRequest) request.getPayload() : PageRequest.first(SeatCounts.MAX_SCREENINGS);
+                        return request.createSuccessResponse(seatCountsPage(pageRequest));
+                    }
+                    return request.createErrorResponse("Invalid seat counts request");
                     
                 case GET_SEATS:
                     if (request.getPayload() instanceof Integer) {
                         Integer screeningId = (Integer) request.getPayload();
-                        Optional<Screening> screeningOpt = screenings.stream()
-                            .filter(s -> s.getScreeningId() == screeningId)
-                            .findFirst();
+                        Screening screening = screeningsById.get(screeningId);
                         
-                        if (screeningOpt.isPresent()) {
-                            Screening screening = screeningOpt.get();
-                            
-                            // Aktualizuj stan miejsc na podstawie istniejących rezerwacji
-                            screening.updateSeatsStatusFromReservations(reservations);
-                            
-                            return request.createSuccessResponse(screening.getAvailableSeats());
+                        if (screening != null) {
+                            // Stan miejsc jest aktualizowany na bieżąco; kopia pod blokadą jest spójna
+                            synchronized (screening) {
+                                return request.createSuccessResponse(screening.copyAvailableSeats());
+                            }
                         } else {
                             return request.createErrorResponse("Screening not found");
                         }
                     }
                     return request.createErrorResponse("Invalid screening ID");
                     
-                case MAKE_RESERVATION:
-                    System.out.println("Received MAKE_RESERVATION request");
-                    if (request.getPayload() instanceof Reservation) {
-                        Reservation reservation = (Reservation) request.getPayload();
-                        boolean success = createReservation(reservation);
-                        
-                        if (success) {
-                            System.out.println("Reservation created successfully: " + reservation.getReservationId());
-                            return request.createSuccessResponse(reservation);
-                        } else {
-                            System.out.println("Failed to create reservation");
-                            return request.createErrorResponse("Failed to create reservation");
-                        }
+                case MAKE_RESERVATION: {
+                    Reservation reservation = reservationFrom(request.getPayload());
+                    if (reservation == null) {
+                        return request.createErrorResponse("Invalid reservation data");
                     }
-                    System.out.println("Invalid reservation data");
-                    return request.createErrorResponse("Invalid reservation data");
+                    boolean success = createReservation(reservation);
+                    
+                    if (success) {
+                        return request.createSuccessResponse(reservation);
+                    } else {
+                        return request.createErrorResponse("Failed to create reservation");
+                    }
+                }
                     
                 case CANCEL_RESERVATION:
-                    System.out.println("Received CANCEL_RESERVATION request");
                     if (request.getPayload() instanceof String) {
                         String reservationId = (String) request.getPayload();
-                        System.out.println("Attempting to cancel reservation: " + reservationId);
                         boolean success = cancelReservation(reservationId);
                         
                         if (success) {
@@ -285,113 +815,486 @@ public class UDPServer {
                     }
                     return request.createErrorResponse("Invalid reservation ID");
                     
-                case GET_RESERVATIONS_BY_EMAIL:
+                case GET_RESERVATIONS_BY_EMAIL: {
+                    // Sam adres email (dawny format) oznacza pierwszą stronę
+                    EmailPageRequest pageRequest = request.getPayload() instanceof String
+                            ? EmailPageRequest.first((String) request.getPayload(), MAX_PAGE_SIZE)
+                            : request.getPayload() instanceof EmailPageRequest
+                            ? (EmailPageRequest) request.getPayload() : null;
+                    if (pageRequest == null || pageRequest.getEmail() == null || pageRequest.getEmail().isBlank()) {
+                        return request.createErrorResponse("Invalid email address");
+                    }
+                    return reservationsByEmail(request, pageRequest);
+                }
+                    
+                case HOLD_SEATS: {
+                    Reservation reservation = reservationFrom(request.getPayload());
+                    if (reservation == null) {
+                        return request.createErrorResponse("Invalid reservation data");
+                    }
+                    return holdSeats(request, reservation);
+                }
+                    
+                case CONFIRM_RESERVATION:
                     if (request.getPayload() instanceof String) {
-                        String email = (String) request.getPayload();
-                        System.out.println("Searching for reservations with email: " + email);
-                        
-                        // Filtruj rezerwacje po adresie email
-                        List<Reservation> userReservations = reservations.stream()
-                            .filter(r -> email.equals(r.getCustomerEmail()))
-                            .collect(Collectors.toList());
-                            
-                        return request.createSuccessResponse(userReservations);
+                        return confirmHold(request, (String) request.getPayload());
+                    }
+                    return request.createErrorResponse("Invalid reservation ID");
+                    
+                case JOIN_QUEUE:
+                    if (waitingRoom == null) {
+                        return request.createErrorResponse("Waiting room is not enabled");
+                    }
+                    if (request.getPayload() instanceof Integer) {
+                        if (!waitingRoom.covers((Integer) request.getPayload())) {
+                            return request.createErrorResponse("Screening has no waiting room");
+                        }
+                        return request.createSuccessResponse(waitingRoom.join((Integer) request.getPayload()));
+                    }
+                    return request.createErrorResponse("Invalid screening ID");
+                    
+                case FIND_BEST_SEATS:
+                    if (request.getPayload() instanceof BestSeatsRequest) {
+                        return findBestSeats(request, (BestSeatsRequest) request.getPayload());
                     }
-                    return request.createErrorResponse("Invalid email address");
+                    return request.createErrorResponse("Invalid seat request");
+                    
+                case STATS:
+                    return request.createSuccessResponse(metrics.snapshot());
+                    
+                case GET_STATS_REPORT: {
+                    // Sam wymiar oznacza pierwszą stronę raportu
+                    StatsReportRequest reportRequest = request.getPayload() instanceof StatsDimension
+                            ? StatsReportRequest.first((StatsDimension) request.getPayload(), MAX_PAGE_SIZE)
+                            : request.getPayload() instanceof StatsReportRequest
+                            ? (StatsReportRequest) request.getPayload() : null;
+                    if (reportRequest == null || reportRequest.getDimension() == null) {
+                        return request.createErrorResponse("Invalid stats report request");
+                    }
+                    return request.createSuccessResponse(statsReportPage(reportRequest));
+                }
                     
                 default:
                     return request.createErrorResponse("Unsupported operation");
             }
         } catch (Exception e) {
-            System.err.println("Error processing request: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error processing request", e);
             return request.createErrorResponse("Server error: " + e.getMessage());
         }
     }
     
     private boolean cancelReservation(String reservationId) {
         try {
-            System.out.println("Cancelling reservation with ID: " + reservationId);
+            // Niepotwierdzona blokada - zwalniamy miejsca, w bazie jej nie ma
+            Reservation held = pendingHolds.get(reservationId);
+            if (held != null) {
+                synchronized (held.getScreening()) {
+                    if (!pendingHolds.remove(reservationId, held)) {
+                        return false; // właśnie wygasła
+                    }
+                    held.cancelReservation();
+                }
+                metrics.increment("holds.cancelled");
+                LOG.info("Hold {} cancelled", reservationId);
+                return true;
+            }
             
             // Najpierw szukamy w pamięci
-            Optional<Reservation> reservationOpt = reservations.stream()
-                .filter(r -> r.getReservationId().equals(reservationId))
-                .findFirst();
+            Reservation reservation = reservationsById.get(reservationId);
             
-            if (reservationOpt.isPresent()) {
-                Reservation reservation = reservationOpt.get();
-                System.out.println("Found reservation in memory, updating status...");
+            if (reservation != null) {
                 
-                // Aktualizuj w pamięci
-                reservation.cancelReservation();
+                // Aktualizuj w pamięci i stan miejsc seansu, pod tą samą blokadą co przy rezerwacji.
+                // Ponowne anulowanie zwolniłoby miejsca, które ktoś mógł już zarezerwować.
+                synchronized (reservation.getScreening()) {
+                    if (reservation.getStatus() != ReservationStatus.CONFIRMED) {
+                        LOG.debug("Reservation {} is already {}", reservationId, reservation.getStatus());
+                        return false;
+                    }
+                    reservation.cancelReservation();
+                    analytics.cancelled(reservation);
+                }
                 
                 // Aktualizuj status w bazie
                 try {
-                    System.out.println("Updating reservation status in database...");
+                    long daoStart = System.nanoTime();
                     reservationDAO.updateStatus(reservationId, ReservationStatus.CANCELLED);
-                    System.out.println("Reservation successfully cancelled.");
-                    
-                    // Aktualizuj stan miejsc w seansu
-                    reservation.getScreening().updateSeatsStatusFromReservations(reservations);
-                    
+                    metrics.recordDao("reservation.updateStatus", System.nanoTime() - daoStart);
+                    LOG.info("Reservation {} cancelled", reservationId);
                     return true;
                 } catch (SQLException e) {
-                    System.err.println("Database error when updating reservation: " + e.getMessage());
-                    e.printStackTrace();
+                    LOG.error("Database error when updating reservation", e);
                     
                     // Mimo błędu bazy danych, zwracamy true, bo rezerwacja została anulowana w pamięci
                     return true;
                 }
             } else {
-                System.out.println("Reservation not found in memory, searching in database...");
+                LOG.debug("Reservation {} not found in memory, searching in database", reservationId);
                 
                 // Jeśli nie znaleziono w pamięci, sprawdź bazę danych
                 try {
+                    long daoStart = System.nanoTime();
                     Reservation dbReservation = reservationDAO.findById(reservationId);
+                    metrics.recordDao("reservation.findById", System.nanoTime() - daoStart);
                     if (dbReservation != null) {
-                        System.out.println("Found reservation in database, updating status...");
-                        
                         // Aktualizuj w pamięci
                         dbReservation.cancelReservation();
-                        reservations.add(dbReservation);
+                        addReservation(dbReservation);
                         
                         // Aktualizuj status w bazie
+                        daoStart = System.nanoTime();
                         reservationDAO.updateStatus(reservationId, ReservationStatus.CANCELLED);
-                        System.out.println("Reservation successfully cancelled.");
+                        metrics.recordDao("reservation.updateStatus", System.nanoTime() - daoStart);
+                        LOG.info("Reservation {} cancelled", reservationId);
                         return true;
                     } else {
-                        System.out.println("Reservation not found in database.");
+                        LOG.debug("Reservation {} not found in database", reservationId);
                         return false;
                     }
                 } catch (SQLException e) {
-                    System.err.println("Database error when finding reservation: " + e.getMessage());
-                    e.printStackTrace();
+                    LOG.error("Database error when finding reservation", e);
                     return false;
                 }
             }
         } catch (Exception e) {
-            System.err.println("Unexpected error in cancelReservation: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Unexpected error in cancelReservation", e);
             return false;
         }
     }
     
-    private void sendResponse(Message response, InetAddress address, int port) {
+    private void sendResponse(Message request, Message response, InetAddress address, int port) {
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ObjectOutputStream oos = new ObjectOutputStream(baos);
-            oos.writeObject(response);
+            RequestStageEvent encodeEvent = new RequestStageEvent(RequestStageEvent.ENCODE);
+            encodeEvent.begin();
+            byte[] responseData = MessageCodec.encode(response);
+            commitStage(encodeEvent, request, responseData.length);
             
-            byte[] responseData = baos.toByteArray();
+            RequestStageEvent sendEvent = new RequestStageEvent(RequestStageEvent.SEND);
+            sendEvent.begin();
             DatagramPacket responsePacket = new DatagramPacket(responseData, responseData.length, address, port);
             serverSocket.send(responsePacket);
+            commitStage(sendEvent, request, responseData.length);
+            metrics.recordResponseSent(responseData.length);
+            if (capture != null) {
+                capture.record(CaptureRecord.OUTBOUND, address, port, responseData, 0, responseData.length);
+            }
             
         } catch (IOException e) {
-            System.err.println("Error sending response: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error sending response", e);
         }
     }
     
+    private void sendBusy(InetAddress address, int port, long retryAfterMillis) {
+        try {
+            byte[] data = MessageCodec.encodeBusy(retryAfterMillis);
+            serverSocket.send(new DatagramPacket(data, data.length, address, port));
+        } catch (IOException e) {
+            LOG.error("Error sending BUSY response", e);
+        }
+    }
+    
+    // Pola zdarzenia wypełniane są tylko wtedy, gdy nagrywanie JFR jest włączone
+    private static void commitStage(RequestStageEvent event, Message request, int payloadBytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            if (request != null) {
+                event.messageType = request.getType().name();
+                event.requestId = request.getRequestId();
+                event.screeningId = screeningIdOf(request);
+            }
+            event.payloadBytes = payloadBytes;
+            event.commit();
+        }
+    }
+    
+    // Żądania rezerwacyjne na seans objęty poczekalnią przechodzą tylko z biletem, którego kolej już nadeszła.
+    // Pozostałe dostają odpowiedź QUEUED z biletem - bez dotykania stanu miejsc.
+    private Message checkAdmission(Message request) {
+        if (waitingRoom == null) {
+            return null;
+        }
+        switch (request.getType()) {
+            case GET_SEATS:
+            case MAKE_RESERVATION:
+            case HOLD_SEATS:
+            case FIND_BEST_SEATS:
+                int screeningId = screeningIdOf(request);
+                if (!waitingRoom.covers(screeningId)) {
+                    return null;
+                }
+                AdmissionTicket ticket = waitingRoom.check(screeningId, request.getAdmissionTicket());
+                return ticket != null ? request.createQueuedResponse(ticket) : null;
+            default:
+                return null;
+        }
+    }
+    
+    // Seans istnieje i jeszcze się nie skończył - tylko takie seanse dostają kolejkę w poczekalni
+    private boolean isScreeningOpen(int screeningId) {
+        Screening screening = screeningsById.get(screeningId);
+        return screening != null && screening.getMovie() != null && screening.getScreeningTime()
+                .plusMinutes(screening.getMovie().getDuration()).isAfter(LocalDateTime.now());
+    }
+    
+    private Message seatStatus(Message request, int[] seat) {
+        Screening screening = screeningsById.get(seat[0]);
+        if (screening == null) {
+            return request.createErrorResponse("Screening not found");
+        }
+        int row = seat[1];
+        int bit = seat[2] - 1;
+        Room room = screening.getRoom();
+        if (row < 1 || row > room.getRows() || bit < 0 || bit >= room.getSeatsPerRow()) {
+            return request.createErrorResponse("Invalid seat");
+        }
+        // Blokada tylko dla spójności słów bitowych budowanych przy pierwszym użyciu
+        boolean free;
+        synchronized (screening) {
+            free = (screening.getFreeSeatWords(row)[bit >>> 6] & (1L << bit)) != 0;
+        }
+        return request.createSuccessResponse(free ? SeatStatus.AVAILABLE : SeatStatus.OCCUPIED);
+    }
+    
+    // Strona rezerwacji od pozycji kursora; rezerwacje są tylko dopisywane, więc kursor się nie przesuwa
+    private Page<ReservationSummary> reservationPage(PageRequest pageRequest) {
+        int limit = Math.max(1, Math.min(pageRequest.getLimit(), MAX_PAGE_SIZE));
+        int from = Math.max(0, pageRequest.getCursor());
+        int size = reservations.size();
+        int to = Math.min(size, from + limit);
+        
+        List<ReservationSummary> items = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            items.add(ReservationSummary.of(reservations.get(i)));
+        }
+        return new Page<>(items, to < size ? to : -1);
+    }
+    
+    // Import planu jest niepodzielny: najpierw w jednym przebiegu sprawdzamy wszystkie seanse - z planem sal
+    // i między sobą (osobny plan tylko dla importu) - a dopiero gdy żaden nie koliduje, zapisujemy całość
+    // paczkami w jednej transakcji i dodajemy do pamięci. Importy wykonują się po kolei.
+    private synchronized Message importSchedule(Message request, ScheduleImport schedule) {
+        Map<Integer, Movie> moviesById = new HashMap<>();
+        for (Movie movie : movies) {
+            moviesById.put(movie.getMovieId(), movie);
+        }
+        Map<Integer, Room> roomsById = new HashMap<>();
+        for (Room room : rooms) {
+            roomsById.put(room.getRoomId(), room);
+        }
+        
+        int firstId = nextScreeningId.get();
+        LocalDateTime now = LocalDateTime.now();
+        RoomSchedule batchSchedule = new RoomSchedule(cleaningMinutes);
+        List<Screening> batch = new ArrayList<>(schedule.size());
+        List<Integer> rejected = new ArrayList<>();
+        List<Integer> conflictsWith = new ArrayList<>();
+        
+        for (int i = 0; i < schedule.size(); i++) {
+            Movie movie = moviesById.get(schedule.getMovieId(i));
+            Room room = roomsById.get(schedule.getRoomId(i));
+            if (movie == null || room == null || !(schedule.getTicketPrice(i) >= 0)) {
+                rejected.add(i);
+                conflictsWith.add(0);
+                continue;
+            }
+            
+            // Seans w przeszłości albo kończący się poza zakresem kluczy planu sal i indeksu czasu (lata 1970-2106)
+            LocalDateTime start = schedule.getStartTime(i);
+            if (start.isBefore(now)
+                    || !ScreeningTimeIndex.isSupported(start.plusMinutes(movie.getDuration() + cleaningMinutes))) {
+                rejected.add(i);
+                conflictsWith.add(0);
+                continue;
+            }
+            
+            Screening conflict = roomSchedule.findConflict(room.getRoomId(), start, movie.getDuration());
+            if (conflict == null) {
+                conflict = batchSchedule.findConflict(room.getRoomId(), start, movie.getDuration());
+            }
+            if (conflict != null) {
+                rejected.add(i);
+                conflictsWith.add(conflict.getScreeningId());
+                continue;
+            }
+            
+            Screening screening = new Screening(firstId + batch.size(), movie, room, start, schedule.getTicketPrice(i));
+            batchSchedule.add(screening);
+            batch.add(screening);
+        }
+        
+        if (!rejected.isEmpty()) {
+            metrics.increment("schedule.rejected", rejected.size());
+            return request.createSuccessResponse(ScheduleImportResult.rejected(
+                    rejected.stream().mapToInt(Integer::intValue).toArray(),
+                    conflictsWith.stream().mapToInt(Integer::intValue).toArray()));
+        }
+        
+        try (Connection conn = dbManager.openConnection()) {
+            long daoStart = System.nanoTime();
+            new ScreeningDAO(conn).insertAll(batch);
+            metrics.recordDao("screening.insertAll", System.nanoTime() - daoStart);
+        } catch (SQLException e) {
+            LOG.error("Database error when importing schedule", e);
+            return request.createErrorResponse("Failed to import schedule");
+        }
+        
+        nextScreeningId.set(firstId + batch.size());
+        for (Screening screening : batch) {
+            screeningsById.put(screening.getScreeningId(), screening);
+            screeningTimes.add(screening);
+            roomSchedule.add(screening);
+            analytics.addScreening(screening);
+        }
+        screenings.addAll(batch);
+        metrics.increment("schedule.imported", batch.size());
+        LOG.info("Imported {} screenings starting at id {}", batch.size(), firstId);
+        return request.createSuccessResponse(ScheduleImportResult.imported(batch.size(), firstId));
+    }
+    
+    // Strona raportu sprzedaży z bieżących sum - bez zapytań do bazy
+    private Page<StatsRow> statsReportPage(StatsReportRequest reportRequest) {
+        int limit = Math.max(1, Math.min(reportRequest.getLimit(), MAX_PAGE_SIZE));
+        int from = Math.max(0, reportRequest.getCursor());
+        List<StatsRow> rows = analytics.report(reportRequest.getDimension(), from, limit);
+        int to = from + rows.size();
+        return new Page<>(rows, to < analytics.groupCount(reportRequest.getDimension()) ? to : -1);
+    }
+    
+    // Strona wyników wyszukiwania filmów; jeden wynik więcej, żeby wiedzieć, czy jest następna strona
+    private Page<MovieSummary> movieSearchPage(MovieSearchRequest searchRequest) {
+        int limit = Math.max(1, Math.min(searchRequest.getLimit(), MAX_PAGE_SIZE));
+        int from = Math.max(0, searchRequest.getCursor());
+        List<Movie> found = movieSearch.search(searchRequest.getQuery(), from, limit + 1);
+        
+        int count = Math.min(found.size(), limit);
+        List<MovieSummary> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(MovieSummary.of(found.get(i)));
+        }
+        return new Page<>(items, found.size() > limit ? from + limit : -1);
+    }
+    
+    // Strona repertuaru od pozycji kursora. Seanse są tylko dopisywane (import planu), więc pozycja na liście
+    // jest stabilnym kursorem. Kursor następnej strony wskazuje pierwszy pasujący seans, którego się nie
+    // zmieściło - przy filtrze filmu ostatnia strona nie bywa pusta.
+    private Page<ScreeningSummary> screeningPage(ScreeningPageRequest pageRequest) {
+        int limit = Math.max(1, Math.min(pageRequest.getLimit(), MAX_PAGE_SIZE));
+        int movieId = pageRequest.getMovieId();
+        List<ScreeningSummary> items = new ArrayList<>(Math.min(limit, 64));
+        int size = screenings.size();
+        for (int i = Math.max(0, pageRequest.getCursor()); i < size; i++) {
+            Screening screening = screenings.get(i);
+            if (movieId != 0 && screening.getMovie().getMovieId() != movieId) {
+                continue;
+            }
+            if (items.size() == limit) {
+                return new Page<>(items, i);
+            }
+            items.add(ScreeningSummary.of(screening));
+        }
+        return new Page<>(items, -1);
+    }
+    
+    // Strona seansów z przedziału czasu; jeden seans więcej, żeby wiedzieć, czy jest następna strona.
+    // Granice spoza zakresu indeksu (lata 1970-2106) są przycinane - seansów poza nim i tak nie ma.
+    private Page<ScreeningSummary> screeningTimePage(ScreeningTimeRequest timeRequest) {
+        int limit = Math.max(1, Math.min(timeRequest.getLimit(), MAX_PAGE_SIZE));
+        int from = Math.max(0, timeRequest.getCursor());
+        List<Screening> found = screeningTimes.range(ScreeningTimeIndex.clamp(timeRequest.getFrom()),
+                                                     ScreeningTimeIndex.clamp(timeRequest.getTo()), from, limit + 1);
+        
+        int count = Math.min(found.size(), limit);
+        List<ScreeningSummary> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(ScreeningSummary.of(found.get(i)));
+        }
+        return new Page<>(items, found.size() > limit ? from + limit : -1);
+    }
+    
+    // Strona rezerwacji klienta z indeksu po adresie email. Adres nieobecny w indeksie sprawdzamy w bazie
+    // (indeks na emailKey) - rezerwacje mogły zostać zapisane poza tym serwerem.
+    private Message reservationsByEmail(Message request, EmailPageRequest pageRequest) {
+        int limit = Math.max(1, Math.min(pageRequest.getLimit(), MAX_PAGE_SIZE));
+        int from = Math.max(0, pageRequest.getCursor());
+        
+        List<String> ids = reservationIdsByEmail.get(Reservation.emailKey(pageRequest.getEmail()));
+        if (ids != null) {
+            int size = ids.size();
+            int to = Math.min(size, from + limit);
+            List<ReservationSummary> items = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                items.add(ReservationSummary.of(reservationsById.get(ids.get(i))));
+            }
+            return request.createSuccessResponse(new Page<>(items, to < size ? to : -1));
+        }
+        
+        try {
+            // Jeden wiersz więcej, żeby wiedzieć, czy jest następna strona
+            long daoStart = System.nanoTime();
+            List<Reservation> found = reservationDAO.findByEmail(pageRequest.getEmail(), from, limit + 1);
+            metrics.recordDao("reservation.findByEmail", System.nanoTime() - daoStart);
+            
+            int count = Math.min(found.size(), limit);
+            List<ReservationSummary> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                items.add(ReservationSummary.of(found.get(i)));
+            }
+            return request.createSuccessResponse(new Page<>(items, found.size() > limit ? from + limit : -1));
+        } catch (SQLException e) {
+            LOG.error("Database error when finding reservations by email", e);
+            return request.createErrorResponse("Failed to get reservations");
+        }
+    }
+    
+    // Strona liczników wszystkich seansów; kursor to pozycja na liście seansów, jak w screeningPage
+    private SeatCounts seatCountsPage(PageRequest pageRequest) {
+        int limit = Math.max(1, Math.min(pageRequest.getLimit(), SeatCounts.MAX_SCREENINGS));
+        int from = Math.max(0, pageRequest.getCursor());
+        int size = screenings.size();
+        int to = Math.min(size, from + limit);
+        SeatCounts counts = new SeatCounts(Math.max(0, to - from), to < size ? to : -1);
+        for (int i = from; i < to; i++) {
+            counts.set(i - from, screenings.get(i));
+        }
+        return counts;
+    }
+    
+    private static SeatCounts seatCountsOf(List<Screening> screenings) {
+        SeatCounts counts = new SeatCounts(screenings.size());
+        for (int i = 0; i < screenings.size(); i++) {
+            counts.set(i, screenings.get(i));
+        }
+        return counts;
+    }
+    
+    private static ServerMetrics.Outcome outcomeOf(Message response) {
+        if (response.isSuccess()) {
+            return ServerMetrics.Outcome.SUCCESS;
+        }
+        return response.isQueued() ? ServerMetrics.Outcome.QUEUED : ServerMetrics.Outcome.ERROR;
+    }
+    
+    private static int screeningIdOf(Message request) {
+        Object payload = request.getPayload();
+        if ((request.getType() == MessageType.GET_SEATS || request.getType() == MessageType.JOIN_QUEUE
+                || request.getType() == MessageType.GET_SCREENING) && payload instanceof Integer) {
+            return (Integer) payload;
+        }
+        if (request.getType() == MessageType.GET_SEAT_STATUS && payload instanceof int[] && ((int[]) payload).length > 0) {
+            return ((int[]) payload)[0];
+        }
+        if (payload instanceof ReservationCommand) {
+            return ((ReservationCommand) payload).getScreeningId();
+        }
+        if (payload instanceof BestSeatsRequest) {
+            return ((BestSeatsRequest) payload).getScreeningId();
+        }
+        if (payload instanceof Reservation && ((Reservation) payload).getScreening() != null) {
+            return ((Reservation) payload).getScreening().getScreeningId();
+        }
+        return 0;
+    }
+    
     private void initializeTestData() {
         // Create movies
         Movie movie1 = new Movie(1, "Inception", 148, 
@@ -426,9 +1329,23 @@ public class UDPServer {
     
     public void stop() {
         running = false;
+        if (statsDumper != null) {
+            statsDumper.stop();
+        }
+        holdWheel.stop();
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+        if (rateLimiter != null) {
+            rateLimiter.stop();
+        }
         if (serverSocket != null && !serverSocket.isClosed()) {
             serverSocket.close();
         }
+        // Zamknięcie opróżnia kolejkę przechwytywania i zamyka plik
+        if (capture != null) {
+            capture.close();
+        }
         
         // Close database connection
         if (dbManager != null) {
@@ -444,28 +1361,11 @@ public class UDPServer {
             try {
                 port = Integer.parseInt(args[0]);
             } catch (NumberFormatException e) {
-                System.err.println("Invalid port number. Using default port " + port);
+                LOG.warn("Invalid port number. Using default port {}", port);
             }
         }
         
         UDPServer server = new UDPServer(port);
         server.start();
     }
-    
-    public void updateStatus(String id, ReservationStatus status) throws SQLException {
-        String sql = "UPDATE reservations SET status = ? WHERE reservationId = ?";
-        System.out.println("Executing SQL: " + sql + " with params: [" + status.name() + ", " + id + "]");
-        
-        try (PreparedStatement pstmt = dbManager.getConnection().prepareStatement(sql)) {
-            pstmt.setString(1, status.name());
-            pstmt.setString(2, id);
-            
-            int updatedRows = pstmt.executeUpdate();
-            System.out.println("Rows updated: " + updatedRows);
-            
-            if (updatedRows == 0) {
-                System.out.println("Warning: No rows were updated when changing status for ID: " + id);
-            }
-        }
-    }
 }
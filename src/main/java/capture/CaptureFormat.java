@@ -0,0 +1,13 @@
+package capture;
+
+// Format pliku przechwytywania:
+//   nagłówek: int MAGIC, short VERSION, long czas rozpoczęcia (epoch ms)
+//   rekord:   byte kierunek, long czas od rozpoczęcia (ns), byte długość adresu, adres (4 lub 16 B),
+//             unsigned short port, int długość danych, dane
+final class CaptureFormat {
+    static final int MAGIC = 0x43415054; // "CAPT"
+    static final short VERSION = 2; // 2: dane to ramki MessageCodec z nagłówkiem
+
+    private CaptureFormat() {
+    }
+}
@@ -0,0 +1,64 @@
+package capture;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+// Odczytuje plik zapisany przez CaptureWriter
+public class CaptureReader implements AutoCloseable {
+    private final DataInputStream in;
+    private final long startEpochMillis;
+
+    public CaptureReader(String file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        if (in.readInt() != CaptureFormat.MAGIC) {
+            in.close();
+            throw new IOException("Not a capture file: " + file);
+        }
+        short version = in.readShort();
+        if (version != CaptureFormat.VERSION) {
+            in.close();
+            throw new IOException("Unsupported capture version " + version + " in " + file);
+        }
+        this.startEpochMillis = in.readLong();
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    // Zwraca null na końcu pliku; ucięty ostatni rekord (np. po awarii serwera) jest pomijany
+    public CaptureRecord next() throws IOException {
+        try {
+            byte direction = in.readByte();
+            long timestampNanos = in.readLong();
+            byte[] address = new byte[in.readUnsignedByte()];
+            in.readFully(address);
+            int port = in.readUnsignedShort();
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            return new CaptureRecord(direction, timestampNanos, InetAddress.getByAddress(address), port, data);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    public List<CaptureRecord> readAll() throws IOException {
+        List<CaptureRecord> records = new ArrayList<>();
+        CaptureRecord record;
+        while ((record = next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
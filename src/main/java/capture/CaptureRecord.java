@@ -0,0 +1,54 @@
+package capture;
+
+import java.net.InetAddress;
+
+// Pojedynczy datagram zapisany w pliku przechwytywania
+public class CaptureRecord {
+    public static final byte INBOUND = 1;   // żądanie odebrane przez serwer
+    public static final byte OUTBOUND = 2;  // odpowiedź wysłana przez serwer
+
+    private final byte direction;
+    private final long timestampNanos;
+    private final InetAddress address;
+    private final int port;
+    private final byte[] data;
+
+    public CaptureRecord(byte direction, long timestampNanos, InetAddress address, int port, byte[] data) {
+        this.direction = direction;
+        this.timestampNanos = timestampNanos;
+        this.address = address;
+        this.port = port;
+        this.data = data;
+    }
+
+    public byte getDirection() {
+        return direction;
+    }
+
+    public boolean isInbound() {
+        return direction == INBOUND;
+    }
+
+    // Czas od początku przechwytywania
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public InetAddress getAddress() {
+        return address;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return (isInbound() ? "IN  " : "OUT ") + timestampNanos / 1000 + " us " +
+               address.getHostAddress() + ":" + port + " " + data.length + " bytes";
+    }
+}
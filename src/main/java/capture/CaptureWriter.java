@@ -0,0 +1,139 @@
+package capture;
+
+import logging.Log;
+import logging.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Zapisuje datagramy serwera do zwartego pliku binarnego (format w CaptureFormat).
+// Wątek obsługujący żądanie tylko kopiuje dane do kolejki; zapis na dysk odbywa się w wątku w tle.
+// Gdy kolejka jest pełna, rekord jest odrzucany i liczony, zamiast spowalniać serwer.
+//
+// Włączenie w serwerze: -Dcinema.capture=<plik> (opcjonalnie -Dcinema.capture.queueSize=<rekordy>)
+public class CaptureWriter implements AutoCloseable {
+    private static final Logger LOG = Log.getLogger(CaptureWriter.class);
+
+    private final DataOutputStream out;
+    private final BlockingQueue<CaptureRecord> queue;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public CaptureWriter(String file, int queueSize) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+
+        out.writeInt(CaptureFormat.MAGIC);
+        out.writeShort(CaptureFormat.VERSION);
+        out.writeLong(System.currentTimeMillis());
+
+        this.writerThread = new Thread(this::drainLoop, "capture-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Zwraca null, gdy przechwytywanie nie jest włączone
+    public static CaptureWriter fromSystemProperties() throws IOException {
+        String file = System.getProperty("cinema.capture");
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+        CaptureWriter writer = new CaptureWriter(file, Integer.getInteger("cinema.capture.queueSize", 65536));
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::close, "capture-shutdown"));
+        return writer;
+    }
+
+    public void record(byte direction, InetAddress address, int port, byte[] data, int offset, int length) {
+        if (!running) {
+            return;
+        }
+        byte[] copy = new byte[length];
+        System.arraycopy(data, offset, copy, 0, length);
+        if (!queue.offer(new CaptureRecord(direction, System.nanoTime() - startNanos, address, port, copy))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // Strumień zamyka wyłącznie ten wątek - także po błędzie zapisu, i nigdy w trakcie zapisu
+    private void drainLoop() {
+        List<CaptureRecord> batch = new ArrayList<>(256);
+        try {
+            while (running || !queue.isEmpty()) {
+                CaptureRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    out.flush();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, 255);
+                for (CaptureRecord record : batch) {
+                    write(record);
+                }
+                written.addAndGet(batch.size());
+                batch.clear();
+            }
+        } catch (IOException e) {
+            running = false;
+            LOG.error("Capture stopped", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                LOG.error("Error closing capture file", e);
+            }
+        }
+    }
+
+    private void write(CaptureRecord record) throws IOException {
+        byte[] address = record.getAddress().getAddress();
+        out.writeByte(record.getDirection());
+        out.writeLong(record.getTimestampNanos());
+        out.writeByte(address.length);
+        out.write(address);
+        out.writeShort(record.getPort());
+        out.writeInt(record.getData().length);
+        out.write(record.getData());
+    }
+
+    // Opróżnia kolejkę i czeka, aż wątek zapisu zamknie plik. Działa też po błędzie zapisu
+    // (running jest już wtedy false) - o jednokrotności decyduje osobna flaga closed.
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        running = false;
+        try {
+            writerThread.join(5000);
+            if (writerThread.isAlive()) {
+                LOG.warn("Capture writer did not finish within 5 s, {} records written", written.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -9,15 +9,31 @@ public class DatabaseManager {
     private static final String USER = "sa";
     private static final String PASS = "";
     
+    private final String url;
     private Connection connection;
     
+    public DatabaseManager() {
+        this(DB_URL);
+    }
+    
+    // Np. "jdbc:h2:mem:cinema;DB_CLOSE_DELAY=-1" dla bazy w pamięci (benchmarki, testy obciążeniowe)
+    public DatabaseManager(String url) {
+        this.url = url;
+    }
+    
     public Connection getConnection() throws SQLException {
         if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(DB_URL, USER, PASS);
+            connection = DriverManager.getConnection(url, USER, PASS);
         }
         return connection;
     }
     
+    // Osobne połączenie dla operacji we własnej transakcji. Wspólne połączenie używają równolegle wszystkie
+    // wątki serwera w trybie autocommit - transakcja na nim objęłaby też cudze zapisy.
+    public Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(url, USER, PASS);
+    }
+    
     public void closeConnection() {
         if (connection != null) {
             try {
@@ -43,5 +59,9 @@ public class DatabaseManager {
         
         ReservationDAO reservationDAO = new ReservationDAO(conn);
         reservationDAO.createTable();
+        
+        // Migracja miejsc zapisanych w starym formacie (jeden wiersz na miejsce)
+        roomDAO.migrateLegacySeats();
+        reservationDAO.migrateLegacySeats();
     }
 }
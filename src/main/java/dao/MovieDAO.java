@@ -1,5 +1,6 @@
 package dao;
 
+import jfr.DaoCallEvent;
 import models.Movie;
 import java.sql.*;
 import java.util.ArrayList;
@@ -13,73 +14,60 @@ public class MovieDAO {
     }
     
     public void createTable() throws SQLException {
-        String sql = "CREATE TABLE IF NOT EXISTS movies (" +
-                     "movieId INT PRIMARY KEY, " +
-                     "title VARCHAR(255), " +
-                     "duration INT, " +
-                     "description TEXT, " +
-                     "genre VARCHAR(100), " +
-                     "director VARCHAR(100), " +
-                     "releaseYear INT, " +
-                     "language VARCHAR(50))";
-        
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
-        }
-    }
-    
-    public void insert(Movie movie) throws SQLException {
-        String sql = "INSERT INTO movies (movieId, title, duration, description, genre, director, releaseYear, language) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-                     
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, movie.getMovieId());
-            pstmt.setString(2, movie.getTitle());
-            pstmt.setInt(3, movie.getDuration());
-            pstmt.setString(4, movie.getDescription());
-            pstmt.setString(5, movie.getGenre());
-            pstmt.setString(6, movie.getDirector());
-            pstmt.setInt(7, movie.getReleaseYear());
-            pstmt.setString(8, movie.getLanguage());
+        DaoCallEvent event = DaoCallEvent.start("movies.createTable");
+        try {
+            String sql = "CREATE TABLE IF NOT EXISTS movies (" +
+                         "movieId INT PRIMARY KEY, " +
+                         "title VARCHAR(255), " +
+                         "duration INT, " +
+                         "description TEXT, " +
+                         "genre VARCHAR(100), " +
+                         "director VARCHAR(100), " +
+                         "releaseYear INT, " +
+                         "language VARCHAR(50))";
             
-            pstmt.executeUpdate();
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(sql);
+            }
+        } finally {
+            event.finish();
         }
     }
     
-    public List<Movie> findAll() throws SQLException {
-        List<Movie> movies = new ArrayList<>();
-        String sql = "SELECT * FROM movies";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                Movie movie = new Movie(
-                    rs.getInt("movieId"),
-                    rs.getString("title"),
-                    rs.getInt("duration"),
-                    rs.getString("description"),
-                    rs.getString("genre"),
-                    rs.getString("director"),
-                    rs.getInt("releaseYear"),
-                    rs.getString("language")
-                );
-                movies.add(movie);
+    public void insert(Movie movie) throws SQLException {
+        DaoCallEvent event = DaoCallEvent.start("movies.insert");
+        try {
+            String sql = "INSERT INTO movies (movieId, title, duration, description, genre, director, releaseYear, language) " +
+                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+                         
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, movie.getMovieId());
+                pstmt.setString(2, movie.getTitle());
+                pstmt.setInt(3, movie.getDuration());
+                pstmt.setString(4, movie.getDescription());
+                pstmt.setString(5, movie.getGenre());
+                pstmt.setString(6, movie.getDirector());
+                pstmt.setInt(7, movie.getReleaseYear());
+                pstmt.setString(8, movie.getLanguage());
+                
+                pstmt.executeUpdate();
             }
+        } finally {
+            event.finish();
         }
-        
-        return movies;
     }
     
-    public Movie findById(int id) throws SQLException {
-        String sql = "SELECT * FROM movies WHERE movieId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
+    public List<Movie> findAll() throws SQLException {
+        DaoCallEvent event = DaoCallEvent.start("movies.findAll");
+        try {
+            List<Movie> movies = new ArrayList<>();
+            String sql = "SELECT * FROM movies";
             
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return new Movie(
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                
+                while (rs.next()) {
+                    Movie movie = new Movie(
                         rs.getInt("movieId"),
                         rs.getString("title"),
                         rs.getInt("duration"),
@@ -89,38 +77,81 @@ public class MovieDAO {
                         rs.getInt("releaseYear"),
                         rs.getString("language")
                     );
+                    movies.add(movie);
                 }
             }
+            
+            return movies;
+        } finally {
+            event.finish();
         }
-        
-        return null;
     }
     
-    public void update(Movie movie) throws SQLException {
-        String sql = "UPDATE movies SET title = ?, duration = ?, description = ?, " +
-                     "genre = ?, director = ?, releaseYear = ?, language = ? " +
-                     "WHERE movieId = ?";
-                     
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, movie.getTitle());
-            pstmt.setInt(2, movie.getDuration());
-            pstmt.setString(3, movie.getDescription());
-            pstmt.setString(4, movie.getGenre());
-            pstmt.setString(5, movie.getDirector());
-            pstmt.setInt(6, movie.getReleaseYear());
-            pstmt.setString(7, movie.getLanguage());
-            pstmt.setInt(8, movie.getMovieId());
+    public Movie findById(int id) throws SQLException {
+        DaoCallEvent event = DaoCallEvent.start("movies.findById");
+        try {
+            String sql = "SELECT * FROM movies WHERE movieId = ?";
+            
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, id);
+                
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return new Movie(
+                            rs.getInt("movieId"),
+                            rs.getString("title"),
+                            rs.getInt("duration"),
+                            rs.getString("description"),
+                            rs.getString("genre"),
+                            rs.getString("director"),
+                            rs.getInt("releaseYear"),
+                            rs.getString("language")
+                        );
+                    }
+                }
+            }
             
-            pstmt.executeUpdate();
+            return null;
+        } finally {
+            event.finish();
+        }
+    }
+    
+    public void update(Movie movie) throws SQLException {
+        DaoCallEvent event = DaoCallEvent.start("movies.update");
+        try {
+            String sql = "UPDATE movies SET title = ?, duration = ?, description = ?, " +
+                         "genre = ?, director = ?, releaseYear = ?, language = ? " +
+                         "WHERE movieId = ?";
+                         
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setString(1, movie.getTitle());
+                pstmt.setInt(2, movie.getDuration());
+                pstmt.setString(3, movie.getDescription());
+                pstmt.setString(4, movie.getGenre());
+                pstmt.setString(5, movie.getDirector());
+                pstmt.setInt(6, movie.getReleaseYear());
+                pstmt.setString(7, movie.getLanguage());
+                pstmt.setInt(8, movie.getMovieId());
+                
+                pstmt.executeUpdate();
+            }
+        } finally {
+            event.finish();
         }
     }
     
     public void delete(int id) throws SQLException {
-        String sql = "DELETE FROM movies WHERE movieId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
-            pstmt.executeUpdate();
+        DaoCallEvent event = DaoCallEvent.start("movies.delete");
+        try {
+            String sql = "DELETE FROM movies WHERE movieId = ?";
+            
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, id);
+                pstmt.executeUpdate();
+            }
+        } finally {
+            event.finish();
         }
     }
 }
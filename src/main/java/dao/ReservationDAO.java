@@ -1,14 +1,25 @@
 package dao;
 
+import jfr.DaoCallEvent;
+import logging.Log;
+import logging.Logger;
 import models.*;
+import util.IdGenerator;
+import util.SeatPacker;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 public class ReservationDAO {
+    private static final Logger LOG = Log.getLogger(ReservationDAO.class);
+    
+    // Rezerwacje z identyfikatorami UUID sprzed migracji na klucze BIGINT
+    private static final String LEGACY_TABLE = "reservations_uuid";
+    
     private Connection connection;
     private ScreeningDAO screeningDAO;
+    private Boolean legacyTablePresent;
     
     public ReservationDAO(Connection connection) {
         this.connection = connection;
@@ -16,54 +27,80 @@ public class ReservationDAO {
     }
     
     public void createTable() throws SQLException {
-        // Tabela dla rezerwacji
-        String reservationSql = "CREATE TABLE IF NOT EXISTS reservations (" +
-                                "reservationId VARCHAR(36) PRIMARY KEY, " +
-                                "screeningId INT, " +
-                                "customerName VARCHAR(255), " +
-                                "customerEmail VARCHAR(255), " +
-                                "customerPhone VARCHAR(50), " +
-                                "reservationTime TIMESTAMP, " +
-                                "status VARCHAR(20), " +
-                                "totalPrice DOUBLE, " +
-                                "FOREIGN KEY (screeningId) REFERENCES screenings(screeningId))";
-        
-        // For the reserved_seats table
-        String reservedSeatsSql = "CREATE TABLE IF NOT EXISTS reserved_seats (" +
-                                  "id INT AUTO_INCREMENT PRIMARY KEY, " +
-                                  "reservationId VARCHAR(36), " +
-                                  "seat_row INT, " +  // Changed here
-                                  "number INT, " +
-                                  "FOREIGN KEY (reservationId) REFERENCES reservations(reservationId))";
-        
-        // Tabela dla miejsc
-        String seatsSql = "CREATE TABLE IF NOT EXISTS seats (" +
-                          "seatId INT AUTO_INCREMENT PRIMARY KEY, " +
-                          "roomId INT, " +
-                          "seat_row INT, " +  // Zmiana nazwy kolumny
-                          "number INT, " +
-                          "status VARCHAR(20), " +
-                          "FOREIGN KEY (roomId) REFERENCES rooms(roomId))";
-        
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(reservationSql);
-            stmt.execute(reservedSeatsSql);
-            stmt.execute(seatsSql);
+        DaoCallEvent event = DaoCallEvent.start("reservations.createTable");
+        try {
+            // Starsze bazy trzymają rezerwacje z kluczem UUID (VARCHAR) - przenosimy je do osobnej tabeli,
+            // z której nadal można je odczytywać, anulować i usuwać
+            if (isUuidKeyed("RESERVATIONS")) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("ALTER TABLE reservations ADD COLUMN IF NOT EXISTS seatData VARBINARY");
+                    stmt.execute("ALTER TABLE reservations RENAME TO " + LEGACY_TABLE);
+                }
+            }
+            
+            // Tabela dla rezerwacji - klucz z generatora IdGenerator, rosnący w czasie
+            String reservationSql = "CREATE TABLE IF NOT EXISTS reservations (" +
+                                    "reservationId BIGINT PRIMARY KEY, " +
+                                    "screeningId INT, " +
+                                    "customerName VARCHAR(255), " +
+                                    "customerEmail VARCHAR(255), " +
+                                    "customerPhone VARCHAR(50), " +
+                                    "reservationTime TIMESTAMP, " +
+                                    "status VARCHAR(20), " +
+                                    "totalPrice DOUBLE, " +
+                                    "seatData VARBINARY, " +
+                                    "emailKey VARCHAR(255) GENERATED ALWAYS AS (LOWER(TRIM(customerEmail))), " +
+                                    "FOREIGN KEY (screeningId) REFERENCES screenings(screeningId))";
+            
+            // Tabela dla miejsc
+            String seatsSql = "CREATE TABLE IF NOT EXISTS seats (" +
+                              "seatId INT AUTO_INCREMENT PRIMARY KEY, " +
+                              "roomId INT, " +
+                              "seat_row INT, " +  // Zmiana nazwy kolumny
+                              "number INT, " +
+                              "status VARCHAR(20), " +
+                              "FOREIGN KEY (roomId) REFERENCES rooms(roomId))";
+            
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(reservationSql);
+                // Znormalizowany adres email z indeksem dla findByEmail (dla baz sprzed tej kolumny)
+                stmt.execute("ALTER TABLE reservations ADD COLUMN IF NOT EXISTS " +
+                             "emailKey VARCHAR(255) GENERATED ALWAYS AS (LOWER(TRIM(customerEmail)))");
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_reservations_email ON reservations(emailKey)");
+                stmt.execute(seatsSql);
+            }
+            
+            legacyTablePresent = null;
+        } finally {
+            event.finish();
         }
     }
     
+    private boolean isUuidKeyed(String table) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getColumns(null, null, table, "RESERVATIONID")) {
+            return rs.next() && rs.getInt("DATA_TYPE") == Types.VARCHAR;
+        }
+    }
+    
+    private boolean hasLegacyTable() throws SQLException {
+        if (legacyTablePresent == null) {
+            try (ResultSet rs = connection.getMetaData().getTables(null, null, LEGACY_TABLE.toUpperCase(), null)) {
+                legacyTablePresent = rs.next();
+            }
+        }
+        return legacyTablePresent;
+    }
+    
     public void insert(Reservation reservation) throws SQLException {
-        System.out.println("Inserting reservation: " + reservation.getReservationId());
-        connection.setAutoCommit(false);
-        
+        DaoCallEvent event = DaoCallEvent.start("reservations.insert");
         try {
-            // Wstaw główny rekord rezerwacji
+            // Wstaw rekord rezerwacji razem z upakowaną listą miejsc
             String sql = "INSERT INTO reservations (reservationId, screeningId, customerName, " +
-                         "customerEmail, customerPhone, reservationTime, status, totalPrice) " +
-                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+                         "customerEmail, customerPhone, reservationTime, status, totalPrice, seatData) " +
+                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
             
             try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setString(1, reservation.getReservationId());
+                pstmt.setLong(1, Long.parseLong(reservation.getReservationId()));
                 pstmt.setInt(2, reservation.getScreening().getScreeningId());
                 pstmt.setString(3, reservation.getCustomerName());
                 pstmt.setString(4, reservation.getCustomerEmail());
@@ -71,42 +108,37 @@ public class ReservationDAO {
                 pstmt.setTimestamp(6, Timestamp.valueOf(reservation.getReservationTime()));
                 pstmt.setString(7, reservation.getStatus().name());
                 pstmt.setDouble(8, reservation.getTotalPrice());
+                pstmt.setBytes(9, SeatPacker.packSeats(reservation.getReservedSeats()));
                 
                 pstmt.executeUpdate();
+                LOG.debug("Reservation {} inserted", reservation.getReservationId());
+            } catch (SQLException e) {
+                LOG.error("Error inserting reservation {} (SQL State: {}, Error Code: {})",
+                          reservation.getReservationId(), e.getSQLState(), e.getErrorCode());
+                throw e;
             }
-            
-            // Wstaw zarezerwowane miejsca
-            insertReservedSeats(reservation);
-            
-            connection.commit();
-            System.out.println("Reservation inserted successfully");
-        } catch (SQLException e) {
-            System.err.println("Error inserting reservation: " + e.getMessage());
-            System.err.println("SQL State: " + e.getSQLState() + ", Error Code: " + e.getErrorCode());
-            connection.rollback();
-            throw e;
         } finally {
-            connection.setAutoCommit(true);
+            event.finish();
         }
     }
     
-    private void insertReservedSeats(Reservation reservation) throws SQLException {
-        String sql = "INSERT INTO reserved_seats (reservationId, seat_row, number) VALUES (?, ?, ?)";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            for (Seat seat : reservation.getReservedSeats()) {
-                pstmt.setString(1, reservation.getReservationId());
-                pstmt.setInt(2, seat.getRow());
-                pstmt.setInt(3, seat.getNumber());
-                pstmt.addBatch();
+    public List<Reservation> findAll() throws SQLException {
+        DaoCallEvent event = DaoCallEvent.start("reservations.findAll");
+        try {
+            List<Reservation> reservations = new ArrayList<>();
+            if (hasLegacyTable()) {
+                loadAll(LEGACY_TABLE, reservations);
             }
-            pstmt.executeBatch();
+            loadAll("reservations", reservations);
+            
+            return reservations;
+        } finally {
+            event.finish();
         }
     }
     
-    public List<Reservation> findAll() throws SQLException {
-        List<Reservation> reservations = new ArrayList<>();
-        String sql = "SELECT * FROM reservations";
+    private void loadAll(String table, List<Reservation> reservations) throws SQLException {
+        String sql = "SELECT * FROM " + table;
         
         try (Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
@@ -118,24 +150,77 @@ public class ReservationDAO {
                 }
             }
         }
-        
-        return reservations;
     }
     
     public Reservation findById(String id) throws SQLException {
-        String sql = "SELECT * FROM reservations WHERE reservationId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, id);
+        DaoCallEvent event = DaoCallEvent.start("reservations.findById");
+        try {
+            String table = tableFor(id);
+            if (table == null) {
+                return null;
+            }
             
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return buildReservationFromResultSet(rs);
+            String sql = "SELECT * FROM " + table + " WHERE reservationId = ?";
+            
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                bindId(pstmt, 1, id);
+                
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return buildReservationFromResultSet(rs);
+                    }
                 }
             }
+            
+            return null;
+        } finally {
+            event.finish();
+        }
+    }
+    
+    // Rezerwacje danego adresu email w kolejności identyfikatorów (czyli utworzenia), od pozycji offset.
+    // Korzysta z indeksu na emailKey; rezerwacje sprzed migracji (tabela UUID) są zawsze w pamięci serwera.
+    public List<Reservation> findByEmail(String email, int offset, int limit) throws SQLException {
+        DaoCallEvent event = DaoCallEvent.start("reservations.findByEmail");
+        try {
+            List<Reservation> reservations = new ArrayList<>();
+            String sql = "SELECT * FROM reservations WHERE emailKey = ? ORDER BY reservationId LIMIT ? OFFSET ?";
+            
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setString(1, Reservation.emailKey(email));
+                pstmt.setInt(2, limit);
+                pstmt.setInt(3, offset);
+                
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Reservation reservation = buildReservationFromResultSet(rs);
+                        if (reservation != null) {
+                            reservations.add(reservation);
+                        }
+                    }
+                }
+            }
+            
+            return reservations;
+        } finally {
+            event.finish();
+        }
+    }
+    
+    // Nowe identyfikatory są liczbowe (BIGINT), identyfikatory UUID trafiają do tabeli z danymi sprzed migracji
+    private String tableFor(String id) throws SQLException {
+        if (IdGenerator.isGeneratedId(id)) {
+            return "reservations";
+        }
+        return id != null && hasLegacyTable() ? LEGACY_TABLE : null;
+    }
+    
+    private void bindId(PreparedStatement pstmt, int index, String id) throws SQLException {
+        if (IdGenerator.isGeneratedId(id)) {
+            pstmt.setLong(index, Long.parseLong(id));
+        } else {
+            pstmt.setString(index, id);
         }
-        
-        return null;
     }
     
     private Reservation buildReservationFromResultSet(ResultSet rs) throws SQLException {
@@ -151,8 +236,11 @@ public class ReservationDAO {
         Screening screening = screeningDAO.findById(screeningId);
         if (screening == null) return null;
         
-        // Pobierz zarezerwowane miejsca
-        List<Seat> reservedSeats = findReservedSeatsByReservationId(reservationId);
+        // Pobierz zarezerwowane miejsca - z kolumny seatData, a dla starszych rekordów z tabeli reserved_seats
+        byte[] seatData = rs.getBytes("seatData");
+        List<Seat> reservedSeats = seatData != null
+                ? SeatPacker.unpackSeats(seatData, SeatStatus.RESERVED)
+                : findReservedSeatsByReservationId(reservationId);
         
         // Utwórz obiekt rezerwacji
         Reservation reservation = new Reservation(screening, reservedSeats, customerName, customerEmail, customerPhone);
@@ -184,61 +272,133 @@ public class ReservationDAO {
         return seats;
     }
     
+    // Przenosi miejsca z tabeli reserved_seats do kolumny seatData dla rezerwacji zapisanych w starym formacie
+    public int migrateLegacySeats() throws SQLException {
+        DaoCallEvent event = DaoCallEvent.start("reservations.migrateLegacySeats");
+        try {
+            // Rezerwacje w nowej tabeli zawsze mają wypełnioną kolumnę seatData
+            if (!hasLegacyTable()) {
+                return 0;
+            }
+            
+            List<String> legacyIds = new ArrayList<>();
+            String sql = "SELECT reservationId FROM " + LEGACY_TABLE + " WHERE seatData IS NULL";
+            
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    legacyIds.add(rs.getString("reservationId"));
+                }
+            }
+            
+            if (legacyIds.isEmpty()) {
+                return 0;
+            }
+            
+            connection.setAutoCommit(false);
+            
+            try (PreparedStatement updateStmt = connection.prepareStatement(
+                     "UPDATE " + LEGACY_TABLE + " SET seatData = ? WHERE reservationId = ?");
+                 PreparedStatement deleteStmt = connection.prepareStatement(
+                     "DELETE FROM reserved_seats WHERE reservationId = ?")) {
+                
+                for (String id : legacyIds) {
+                    List<Seat> seats = findReservedSeatsByReservationId(id);
+                    updateStmt.setBytes(1, SeatPacker.packSeats(seats));
+                    updateStmt.setString(2, id);
+                    updateStmt.addBatch();
+                    
+                    deleteStmt.setString(1, id);
+                    deleteStmt.addBatch();
+                }
+                updateStmt.executeBatch();
+                deleteStmt.executeBatch();
+                
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            
+            return legacyIds.size();
+        } finally {
+            event.finish();
+        }
+    }
+    
     public void updateStatus(String id, ReservationStatus status) throws SQLException {
-        // Dodaj więcej logowania, aby sprawdzić, co się dzieje
-        System.out.println("Updating reservation status in database. ID: " + id + ", New status: " + status);
-        
-        String sql = "UPDATE reservations SET status = ? WHERE reservationId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, status.name());
-            pstmt.setString(2, id);
-            
-            int updatedRows = pstmt.executeUpdate();
-            System.out.println("Updated " + updatedRows + " rows in database");
-            
-            if (updatedRows == 0) {
-                System.out.println("Warning: No rows were updated for ID: " + id);
-                // Spróbuj znaleźć rekord w bazie
-                try (PreparedStatement checkStmt = connection.prepareStatement(
-                        "SELECT COUNT(*) FROM reservations WHERE reservationId = ?")) {
-                    checkStmt.setString(1, id);
-                    try (ResultSet rs = checkStmt.executeQuery()) {
-                        if (rs.next() && rs.getInt(1) > 0) {
-                            System.out.println("Record exists in database but was not updated");
-                        } else {
-                            System.out.println("Record does not exist in database");
-                        }
-                    }
+        DaoCallEvent event = DaoCallEvent.start("reservations.updateStatus");
+        try {
+            String table = tableFor(id);
+            if (table == null) {
+                LOG.warn("No rows were updated for ID: {}", id);
+                return;
+            }
+            
+            String sql = "UPDATE " + table + " SET status = ? WHERE reservationId = ?";
+            
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setString(1, status.name());
+                bindId(pstmt, 2, id);
+                
+                int updatedRows = pstmt.executeUpdate();
+                if (updatedRows == 0) {
+                    LOG.warn("No rows were updated for ID: {}", id);
+                } else {
+                    LOG.debug("Reservation {} status changed to {}", id, status);
                 }
             }
+        } finally {
+            event.finish();
         }
     }
     
     public void delete(String id) throws SQLException {
-        connection.setAutoCommit(false);
-        
+        DaoCallEvent event = DaoCallEvent.start("reservations.delete");
         try {
-            // Najpierw usuń powiązane miejsca
-            String seatsSQL = "DELETE FROM reserved_seats WHERE reservationId = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(seatsSQL)) {
-                pstmt.setString(1, id);
-                pstmt.executeUpdate();
+            String table = tableFor(id);
+            if (table == null) {
+                return;
             }
             
-            // Następnie usuń rezerwację
-            String reservationSQL = "DELETE FROM reservations WHERE reservationId = ?";
-            try (PreparedStatement pstmt = connection.prepareStatement(reservationSQL)) {
-                pstmt.setString(1, id);
-                pstmt.executeUpdate();
+            // Nowe rezerwacje trzymają miejsca w kolumnie seatData - wystarczy usunąć jeden wiersz
+            if (!table.equals(LEGACY_TABLE)) {
+                try (PreparedStatement pstmt = connection.prepareStatement(
+                        "DELETE FROM reservations WHERE reservationId = ?")) {
+                    bindId(pstmt, 1, id);
+                    pstmt.executeUpdate();
+                }
+                return;
             }
             
-            connection.commit();
-        } catch (SQLException e) {
-            connection.rollback();
-            throw e;
+            connection.setAutoCommit(false);
+            
+            try {
+                // Najpierw usuń powiązane miejsca
+                String seatsSQL = "DELETE FROM reserved_seats WHERE reservationId = ?";
+                try (PreparedStatement pstmt = connection.prepareStatement(seatsSQL)) {
+                    pstmt.setString(1, id);
+                    pstmt.executeUpdate();
+                }
+                
+                // Następnie usuń rezerwację
+                String reservationSQL = "DELETE FROM " + LEGACY_TABLE + " WHERE reservationId = ?";
+                try (PreparedStatement pstmt = connection.prepareStatement(reservationSQL)) {
+                    pstmt.setString(1, id);
+                    pstmt.executeUpdate();
+                }
+                
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
         } finally {
-            connection.setAutoCommit(true);
+            event.finish();
         }
     }
 }
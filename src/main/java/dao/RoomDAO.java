@@ -1,8 +1,9 @@
 package dao;
 
+import jfr.DaoCallEvent;
 import models.Room;
-import models.Seat;
 import models.SeatStatus;
+import util.SeatPacker;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,87 +16,96 @@ public class RoomDAO {
     }
     
     public void createTable() throws SQLException {
-        // Tabela dla sal
-        String roomSql = "CREATE TABLE IF NOT EXISTS rooms (" +
-                         "roomId INT PRIMARY KEY, " +
-                         "roomName VARCHAR(100), " +
-                         "rows INT, " +
-                         "seatsPerRow INT)";
-        
-        // Tabela dla miejsc (opcjonalnie - można też przechowywać miejsca w pamięci)
-        String seatsSql = "CREATE TABLE IF NOT EXISTS seats (" +
-                          "seatId INT AUTO_INCREMENT PRIMARY KEY, " +
-                          "roomId INT, " +
-                          "seat_row INT, " +  // Changed 'row' to 'seat_row' to avoid reserved keyword
-                          "number INT, " +
-                          "status VARCHAR(20), " +
-                          "FOREIGN KEY (roomId) REFERENCES rooms(roomId))";
-        
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(roomSql);
-            stmt.execute(seatsSql);
+        DaoCallEvent event = DaoCallEvent.start("rooms.createTable");
+        try {
+            // Tabela dla sal
+            String roomSql = "CREATE TABLE IF NOT EXISTS rooms (" +
+                             "roomId INT PRIMARY KEY, " +
+                             "roomName VARCHAR(100), " +
+                             "rows INT, " +
+                             "seatsPerRow INT, " +
+                             "seatLayout VARBINARY)";
+            
+            // Starsze bazy nie mają kolumny z deskryptorem układu sali
+            String layoutColumnSql = "ALTER TABLE rooms ADD COLUMN IF NOT EXISTS seatLayout VARBINARY";
+            
+            // Tabela dla miejsc (format przestarzały - tylko do odczytu starszych danych)
+            String seatsSql = "CREATE TABLE IF NOT EXISTS seats (" +
+                              "seatId INT AUTO_INCREMENT PRIMARY KEY, " +
+                              "roomId INT, " +
+                              "seat_row INT, " +  // Changed 'row' to 'seat_row' to avoid reserved keyword
+                              "number INT, " +
+                              "status VARCHAR(20), " +
+                              "FOREIGN KEY (roomId) REFERENCES rooms(roomId))";
+            
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(roomSql);
+                stmt.execute(layoutColumnSql);
+                stmt.execute(seatsSql);
+            }
+        } finally {
+            event.finish();
         }
     }
     
     public void insert(Room room) throws SQLException {
-        // Wstaw informacje o sali
-        String sql = "INSERT INTO rooms (roomId, roomName, rows, seatsPerRow) VALUES (?, ?, ?, ?)";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, room.getRoomId());
-            pstmt.setString(2, room.getRoomName());
-            pstmt.setInt(3, room.getRows());
-            pstmt.setInt(4, room.getSeatsPerRow());
-            pstmt.executeUpdate();
+        DaoCallEvent event = DaoCallEvent.start("rooms.insert");
+        try {
+            // Wstaw informacje o sali
+            // Miejsca zapisywane są jako deskryptor układu zamiast osobnych wierszy w tabeli seats
+            String sql = "INSERT INTO rooms (roomId, roomName, rows, seatsPerRow, seatLayout) VALUES (?, ?, ?, ?, ?)";
+            
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, room.getRoomId());
+                pstmt.setString(2, room.getRoomName());
+                pstmt.setInt(3, room.getRows());
+                pstmt.setInt(4, room.getSeatsPerRow());
+                pstmt.setBytes(5, SeatPacker.packLayout(room));
+                pstmt.executeUpdate();
+            }
+        } finally {
+            event.finish();
         }
-        
-        // Opcjonalnie: zapisz informacje o miejscach
-        // Można to pominąć, jeśli miejsca są inicjalizowane dynamicznie
-        insertSeats(room);
     }
     
-    private void insertSeats(Room room) throws SQLException {
-        String sql = "INSERT INTO seats (roomId, seat_row, number, status) VALUES (?, ?, ?, ?)";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            for (int i = 0; i < room.getRows(); i++) {
-                for (int j = 0; j < room.getSeatsPerRow(); j++) {
-                    Seat seat = room.getSeats()[i][j];
-                    pstmt.setInt(1, room.getRoomId());
-                    pstmt.setInt(2, seat.getRow());
-                    pstmt.setInt(3, seat.getNumber());
-                    pstmt.setString(4, seat.getStatus().name());
-                    pstmt.addBatch();
+    public List<Room> findAll() throws SQLException {
+        DaoCallEvent event = DaoCallEvent.start("rooms.findAll");
+        try {
+            List<Room> rooms = new ArrayList<>();
+            String sql = "SELECT * FROM rooms";
+            
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                
+                while (rs.next()) {
+                    int roomId = rs.getInt("roomId");
+                    String roomName = rs.getString("roomName");
+                    int rows = rs.getInt("rows");
+                    int seatsPerRow = rs.getInt("seatsPerRow");
+                    
+                    Room room = new Room(roomId, roomName, rows, seatsPerRow);
+                    loadSeats(room, rs.getBytes("seatLayout"));
+                    rooms.add(room);
                 }
             }
-            pstmt.executeBatch();
+            
+            return rooms;
+        } finally {
+            event.finish();
         }
     }
     
-    public List<Room> findAll() throws SQLException {
-        List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT * FROM rooms";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                int roomId = rs.getInt("roomId");
-                String roomName = rs.getString("roomName");
-                int rows = rs.getInt("rows");
-                int seatsPerRow = rs.getInt("seatsPerRow");
-                
-                Room room = new Room(roomId, roomName, rows, seatsPerRow);
-                // Opcjonalnie: wczytaj miejsca z bazy danych
-                loadSeats(room);
-                rooms.add(room);
-            }
+    private void loadSeats(Room room, byte[] seatLayout) throws SQLException {
+        if (seatLayout != null) {
+            SeatPacker.applyLayout(room, seatLayout);
+            return;
         }
         
-        return rooms;
+        // Sala niezmigrowana - odczyt ze starej tabeli seats
+        loadLegacySeats(room);
     }
     
-    private void loadSeats(Room room) throws SQLException {
+    private void loadLegacySeats(Room room) throws SQLException {
         String sql = "SELECT * FROM seats WHERE roomId = ?";
         
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
@@ -118,44 +128,106 @@ public class RoomDAO {
     }
     
     public Room findById(int id) throws SQLException {
-        String sql = "SELECT * FROM rooms WHERE roomId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
+        DaoCallEvent event = DaoCallEvent.start("rooms.findById");
+        try {
+            String sql = "SELECT * FROM rooms WHERE roomId = ?";
             
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    int roomId = rs.getInt("roomId");
-                    String roomName = rs.getString("roomName");
-                    int rows = rs.getInt("rows");
-                    int seatsPerRow = rs.getInt("seatsPerRow");
-                    
-                    Room room = new Room(roomId, roomName, rows, seatsPerRow);
-                    loadSeats(room);
-                    return room;
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, id);
+                
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        int roomId = rs.getInt("roomId");
+                        String roomName = rs.getString("roomName");
+                        int rows = rs.getInt("rows");
+                        int seatsPerRow = rs.getInt("seatsPerRow");
+                        
+                        Room room = new Room(roomId, roomName, rows, seatsPerRow);
+                        loadSeats(room, rs.getBytes("seatLayout"));
+                        return room;
+                    }
                 }
             }
+            
+            return null;
+        } finally {
+            event.finish();
         }
-        
-        return null;
     }
     
     public void update(Room room) throws SQLException {
-        String sql = "UPDATE rooms SET roomName = ?, rows = ?, seatsPerRow = ? WHERE roomId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, room.getRoomName());
-            pstmt.setInt(2, room.getRows());
-            pstmt.setInt(3, room.getSeatsPerRow());
-            pstmt.setInt(4, room.getRoomId());
+        DaoCallEvent event = DaoCallEvent.start("rooms.update");
+        try {
+            String sql = "UPDATE rooms SET roomName = ?, rows = ?, seatsPerRow = ?, seatLayout = ? WHERE roomId = ?";
             
-            pstmt.executeUpdate();
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setString(1, room.getRoomName());
+                pstmt.setInt(2, room.getRows());
+                pstmt.setInt(3, room.getSeatsPerRow());
+                pstmt.setBytes(4, SeatPacker.packLayout(room));
+                pstmt.setInt(5, room.getRoomId());
+                
+                pstmt.executeUpdate();
+            }
+            
+            // Usuń ewentualne wiersze w starym formacie - układ jest już w deskryptorze
+            deleteSeats(room.getRoomId());
+        } finally {
+            event.finish();
+        }
+    }
+    
+    // Przenosi miejsca z tabeli seats do kolumny seatLayout dla sal zapisanych w starym formacie
+    public int migrateLegacySeats() throws SQLException {
+        DaoCallEvent event = DaoCallEvent.start("rooms.migrateLegacySeats");
+        try {
+            List<Room> legacyRooms = new ArrayList<>();
+            String sql = "SELECT * FROM rooms WHERE seatLayout IS NULL";
+            
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                
+                while (rs.next()) {
+                    Room room = new Room(rs.getInt("roomId"), rs.getString("roomName"),
+                                         rs.getInt("rows"), rs.getInt("seatsPerRow"));
+                    loadLegacySeats(room);
+                    legacyRooms.add(room);
+                }
+            }
+            
+            if (legacyRooms.isEmpty()) {
+                return 0;
+            }
+            
+            connection.setAutoCommit(false);
+            
+            try {
+                String updateSql = "UPDATE rooms SET seatLayout = ? WHERE roomId = ?";
+                try (PreparedStatement pstmt = connection.prepareStatement(updateSql)) {
+                    for (Room room : legacyRooms) {
+                        pstmt.setBytes(1, SeatPacker.packLayout(room));
+                        pstmt.setInt(2, room.getRoomId());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                
+                for (Room room : legacyRooms) {
+                    deleteSeats(room.getRoomId());
+                }
+                
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            
+            return legacyRooms.size();
+        } finally {
+            event.finish();
         }
-        
-        // Aktualizuj miejsca - najpierw usuń stare
-        deleteSeats(room.getRoomId());
-        // Następnie wstaw nowe
-        insertSeats(room);
     }
     
     private void deleteSeats(int roomId) throws SQLException {
@@ -168,15 +240,20 @@ public class RoomDAO {
     }
     
     public void delete(int id) throws SQLException {
-        // Najpierw usuń miejsca
-        deleteSeats(id);
-        
-        // Następnie usuń salę
-        String sql = "DELETE FROM rooms WHERE roomId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
-            pstmt.executeUpdate();
+        DaoCallEvent event = DaoCallEvent.start("rooms.delete");
+        try {
+            // Najpierw usuń miejsca
+            deleteSeats(id);
+            
+            // Następnie usuń salę
+            String sql = "DELETE FROM rooms WHERE roomId = ?";
+            
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, id);
+                pstmt.executeUpdate();
+            }
+        } finally {
+            event.finish();
         }
     }
 }
@@ -1,5 +1,6 @@
 package dao;
 
+import jfr.DaoCallEvent;
 import models.Movie;
 import models.Room;
 import models.Screening;
@@ -9,6 +10,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class ScreeningDAO {
+    private static final int BATCH_SIZE = 500;
+    
     private Connection connection;
     private MovieDAO movieDAO;
     private RoomDAO roomDAO;
@@ -20,72 +23,98 @@ public class ScreeningDAO {
     }
     
     public void createTable() throws SQLException {
-        String sql = "CREATE TABLE IF NOT EXISTS screenings (" +
-                     "screeningId INT PRIMARY KEY, " +
-                     "movieId INT, " +
-                     "roomId INT, " +
-                     "screeningTime TIMESTAMP, " +
-                     "ticketPrice DOUBLE, " +
-                     "FOREIGN KEY (movieId) REFERENCES movies(movieId), " +
-                     "FOREIGN KEY (roomId) REFERENCES rooms(roomId))";
-        
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
+        DaoCallEvent event = DaoCallEvent.start("screenings.createTable");
+        try {
+            String sql = "CREATE TABLE IF NOT EXISTS screenings (" +
+                         "screeningId INT PRIMARY KEY, " +
+                         "movieId INT, " +
+                         "roomId INT, " +
+                         "screeningTime TIMESTAMP, " +
+                         "ticketPrice DOUBLE, " +
+                         "FOREIGN KEY (movieId) REFERENCES movies(movieId), " +
+                         "FOREIGN KEY (roomId) REFERENCES rooms(roomId))";
+            
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(sql);
+            }
+        } finally {
+            event.finish();
         }
     }
     
     public void insert(Screening screening) throws SQLException {
-        String sql = "INSERT INTO screenings (screeningId, movieId, roomId, screeningTime, ticketPrice) " +
-                     "VALUES (?, ?, ?, ?, ?)";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, screening.getScreeningId());
-            pstmt.setInt(2, screening.getMovie().getMovieId());
-            pstmt.setInt(3, screening.getRoom().getRoomId());
-            pstmt.setTimestamp(4, Timestamp.valueOf(screening.getScreeningTime()));
-            pstmt.setDouble(5, screening.getTicketPrice());
+        DaoCallEvent event = DaoCallEvent.start("screenings.insert");
+        try {
+            String sql = "INSERT INTO screenings (screeningId, movieId, roomId, screeningTime, ticketPrice) " +
+                         "VALUES (?, ?, ?, ?, ?)";
             
-            pstmt.executeUpdate();
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, screening.getScreeningId());
+                pstmt.setInt(2, screening.getMovie().getMovieId());
+                pstmt.setInt(3, screening.getRoom().getRoomId());
+                pstmt.setTimestamp(4, Timestamp.valueOf(screening.getScreeningTime()));
+                pstmt.setDouble(5, screening.getTicketPrice());
+                
+                pstmt.executeUpdate();
+            }
+        } finally {
+            event.finish();
         }
     }
     
-    public List<Screening> findAll() throws SQLException {
-        List<Screening> screenings = new ArrayList<>();
-        String sql = "SELECT * FROM screenings";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    // Wiele seansów w jednej transakcji, wysyłanych paczkami po BATCH_SIZE - import planu na cały kwartał
+    // to tysiące wierszy, a pojedyncze insert() oznaczałyby osobne wykonanie i zatwierdzenie każdego z nich
+    public void insertAll(List<Screening> screenings) throws SQLException {
+        DaoCallEvent event = DaoCallEvent.start("screenings.insertAll");
+        try {
+            String sql = "INSERT INTO screenings (screeningId, movieId, roomId, screeningTime, ticketPrice) " +
+                         "VALUES (?, ?, ?, ?, ?)";
             
-            while (rs.next()) {
-                int screeningId = rs.getInt("screeningId");
-                int movieId = rs.getInt("movieId");
-                int roomId = rs.getInt("roomId");
-                LocalDateTime screeningTime = rs.getTimestamp("screeningTime").toLocalDateTime();
-                double ticketPrice = rs.getDouble("ticketPrice");
-                
-                Movie movie = movieDAO.findById(movieId);
-                Room room = roomDAO.findById(roomId);
-                
-                if (movie != null && room != null) {
-                    Screening screening = new Screening(screeningId, movie, room, screeningTime, ticketPrice);
-                    screenings.add(screening);
+            connection.setAutoCommit(false);
+            
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                int pending = 0;
+                for (Screening screening : screenings) {
+                    pstmt.setInt(1, screening.getScreeningId());
+                    pstmt.setInt(2, screening.getMovie().getMovieId());
+                    pstmt.setInt(3, screening.getRoom().getRoomId());
+                    pstmt.setTimestamp(4, Timestamp.valueOf(screening.getScreeningTime()));
+                    pstmt.setDouble(5, screening.getTicketPrice());
+                    pstmt.addBatch();
+                    
+                    if (++pending == BATCH_SIZE) {
+                        pstmt.executeBatch();
+                        pending = 0;
+                    }
                 }
+                if (pending > 0) {
+                    pstmt.executeBatch();
+                }
+                
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
+        } finally {
+            event.finish();
         }
-        
-        return screenings;
     }
     
-    public List<Screening> findByMovieId(int movieId) throws SQLException {
-        List<Screening> screenings = new ArrayList<>();
-        String sql = "SELECT * FROM screenings WHERE movieId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, movieId);
+    public List<Screening> findAll() throws SQLException {
+        DaoCallEvent event = DaoCallEvent.start("screenings.findAll");
+        try {
+            List<Screening> screenings = new ArrayList<>();
+            String sql = "SELECT * FROM screenings";
             
-            try (ResultSet rs = pstmt.executeQuery()) {
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                
                 while (rs.next()) {
                     int screeningId = rs.getInt("screeningId");
+                    int movieId = rs.getInt("movieId");
                     int roomId = rs.getInt("roomId");
                     LocalDateTime screeningTime = rs.getTimestamp("screeningTime").toLocalDateTime();
                     double ticketPrice = rs.getDouble("ticketPrice");
@@ -99,58 +128,108 @@ public class ScreeningDAO {
                     }
                 }
             }
+            
+            return screenings;
+        } finally {
+            event.finish();
+        }
+    }
+    
+    public List<Screening> findByMovieId(int movieId) throws SQLException {
+        DaoCallEvent event = DaoCallEvent.start("screenings.findByMovieId");
+        try {
+            List<Screening> screenings = new ArrayList<>();
+            String sql = "SELECT * FROM screenings WHERE movieId = ?";
+            
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, movieId);
+                
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        int screeningId = rs.getInt("screeningId");
+                        int roomId = rs.getInt("roomId");
+                        LocalDateTime screeningTime = rs.getTimestamp("screeningTime").toLocalDateTime();
+                        double ticketPrice = rs.getDouble("ticketPrice");
+                        
+                        Movie movie = movieDAO.findById(movieId);
+                        Room room = roomDAO.findById(roomId);
+                        
+                        if (movie != null && room != null) {
+                            Screening screening = new Screening(screeningId, movie, room, screeningTime, ticketPrice);
+                            screenings.add(screening);
+                        }
+                    }
+                }
+            }
+            
+            return screenings;
+        } finally {
+            event.finish();
         }
-        
-        return screenings;
     }
     
     public Screening findById(int id) throws SQLException {
-        String sql = "SELECT * FROM screenings WHERE screeningId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
+        DaoCallEvent event = DaoCallEvent.start("screenings.findById");
+        try {
+            String sql = "SELECT * FROM screenings WHERE screeningId = ?";
             
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    int movieId = rs.getInt("movieId");
-                    int roomId = rs.getInt("roomId");
-                    LocalDateTime screeningTime = rs.getTimestamp("screeningTime").toLocalDateTime();
-                    double ticketPrice = rs.getDouble("ticketPrice");
-                    
-                    Movie movie = movieDAO.findById(movieId);
-                    Room room = roomDAO.findById(roomId);
-                    
-                    if (movie != null && room != null) {
-                        return new Screening(id, movie, room, screeningTime, ticketPrice);
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, id);
+                
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        int movieId = rs.getInt("movieId");
+                        int roomId = rs.getInt("roomId");
+                        LocalDateTime screeningTime = rs.getTimestamp("screeningTime").toLocalDateTime();
+                        double ticketPrice = rs.getDouble("ticketPrice");
+                        
+                        Movie movie = movieDAO.findById(movieId);
+                        Room room = roomDAO.findById(roomId);
+                        
+                        if (movie != null && room != null) {
+                            return new Screening(id, movie, room, screeningTime, ticketPrice);
+                        }
                     }
                 }
             }
+            
+            return null;
+        } finally {
+            event.finish();
         }
-        
-        return null;
     }
     
     public void update(Screening screening) throws SQLException {
-        String sql = "UPDATE screenings SET movieId = ?, roomId = ?, screeningTime = ?, ticketPrice = ? " +
-                     "WHERE screeningId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, screening.getMovie().getMovieId());
-            pstmt.setInt(2, screening.getRoom().getRoomId());
-            pstmt.setTimestamp(3, Timestamp.valueOf(screening.getScreeningTime()));
-            pstmt.setDouble(4, screening.getTicketPrice());
-            pstmt.setInt(5, screening.getScreeningId());
+        DaoCallEvent event = DaoCallEvent.start("screenings.update");
+        try {
+            String sql = "UPDATE screenings SET movieId = ?, roomId = ?, screeningTime = ?, ticketPrice = ? " +
+                         "WHERE screeningId = ?";
             
-            pstmt.executeUpdate();
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, screening.getMovie().getMovieId());
+                pstmt.setInt(2, screening.getRoom().getRoomId());
+                pstmt.setTimestamp(3, Timestamp.valueOf(screening.getScreeningTime()));
+                pstmt.setDouble(4, screening.getTicketPrice());
+                pstmt.setInt(5, screening.getScreeningId());
+                
+                pstmt.executeUpdate();
+            }
+        } finally {
+            event.finish();
         }
     }
     
     public void delete(int id) throws SQLException {
-        String sql = "DELETE FROM screenings WHERE screeningId = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id);
-            pstmt.executeUpdate();
+        DaoCallEvent event = DaoCallEvent.start("screenings.delete");
+        try {
+            String sql = "DELETE FROM screenings WHERE screeningId = ?";
+            
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setInt(1, id);
+                pstmt.executeUpdate();
+            }
+        } finally {
+            event.finish();
         }
     }
 }
@@ -0,0 +1,55 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Wywołanie metody DAO - etykieta SQL identyfikuje zapytanie bez kosztu zapisywania pełnego tekstu.
+// Pola żądania pochodzą z RequestContext wątku; wywołania poza obsługą żądania (start serwera) mają je puste.
+@Name("cinema.DaoCall")
+@Label("DAO Call")
+@Category({"Cinema", "Database"})
+@Description("Single DAO method call against the H2 database")
+@StackTrace(false)
+public class DaoCallEvent extends jdk.jfr.Event {
+    @Label("SQL Label")
+    public String sqlLabel;
+
+    @Label("Message Type")
+    public String messageType;
+
+    @Label("Screening Id")
+    public int screeningId;
+
+    @Label("Payload Bytes")
+    @DataAmount
+    public int payloadBytes;
+
+    @Label("Request Id")
+    public long requestId;
+
+    private DaoCallEvent(String sqlLabel) {
+        this.sqlLabel = sqlLabel;
+    }
+
+    public static DaoCallEvent start(String sqlLabel) {
+        DaoCallEvent event = new DaoCallEvent(sqlLabel);
+        event.begin();
+        return event;
+    }
+
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            RequestContext context = RequestContext.current();
+            messageType = context.messageType;
+            screeningId = context.screeningId;
+            payloadBytes = context.payloadBytes;
+            requestId = context.requestId;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package jfr;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Wypisuje najwolniejsze etapy z pliku .jfr nagranego z szablonem cinema.jfc:
+// serializacja (DECODE/ENCODE), baza H2 (DAO) czy oczekiwanie na blokady (LOCK/PARK).
+//
+// java -cp target/classes jfr.JfrAnalyzer cinema.jfr [liczba najwolniejszych zdarzeń]
+public class JfrAnalyzer {
+    private static class Stats {
+        final String key;
+        final List<Long> durations = new ArrayList<>();
+        long total;
+
+        Stats(String key) {
+            this.key = key;
+        }
+
+        void add(long nanos) {
+            durations.add(nanos);
+            total += nanos;
+        }
+
+        long percentile(double percentile) {
+            int index = (int) Math.ceil(durations.size() * percentile / 100.0) - 1;
+            return durations.get(Math.max(0, Math.min(index, durations.size() - 1)));
+        }
+    }
+
+    private static class Slowest {
+        final String key;
+        final long nanos;
+        final String detail;
+
+        Slowest(String key, long nanos, String detail) {
+            this.key = key;
+            this.nanos = nanos;
+            this.detail = detail;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java jfr.JfrAnalyzer <recording.jfr> [top]");
+            return;
+        }
+        int top = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Map<String, Stats> statsByKey = new HashMap<>();
+        List<Slowest> slowest = new ArrayList<>();
+
+        for (RecordedEvent event : RecordingFile.readAllEvents(Path.of(args[0]))) {
+            String key = keyOf(event);
+            if (key == null) {
+                continue;
+            }
+            long nanos = event.getDuration().toNanos();
+            statsByKey.computeIfAbsent(key, Stats::new).add(nanos);
+            slowest.add(new Slowest(key, nanos, detailOf(event)));
+        }
+
+        List<Stats> stats = new ArrayList<>(statsByKey.values());
+        stats.sort(Comparator.comparingLong((Stats s) -> s.total).reversed());
+
+        System.out.println("Stages by total time:");
+        System.out.printf("%-45s %8s %12s %10s %10s %10s%n", "stage", "count", "total ms", "p50 us", "p99 us", "max us");
+        for (Stats s : stats) {
+            s.durations.sort(null);
+            System.out.printf("%-45s %8d %12.1f %10d %10d %10d%n",
+                    s.key, s.durations.size(), s.total / 1e6,
+                    s.percentile(50) / 1000, s.percentile(99) / 1000,
+                    s.durations.get(s.durations.size() - 1) / 1000);
+        }
+
+        slowest.sort(Comparator.comparingLong((Slowest s) -> s.nanos).reversed());
+        System.out.println();
+        System.out.println("Slowest " + top + " events:");
+        for (int i = 0; i < Math.min(top, slowest.size()); i++) {
+            Slowest s = slowest.get(i);
+            System.out.printf("%10.3f ms  %-40s %s%n", s.nanos / 1e6, s.key, s.detail);
+        }
+    }
+
+    private static String keyOf(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case "cinema.RequestStage":
+                String type = event.getString("messageType");
+                return event.getString("stage") + (type != null ? " " + type : "");
+            case "cinema.DaoCall":
+                return "DAO " + event.getString("sqlLabel");
+            case "jdk.JavaMonitorEnter":
+            case "jdk.JavaMonitorWait":
+                RecordedClass monitorClass = event.getValue("monitorClass");
+                return "LOCK " + (monitorClass != null ? monitorClass.getName() : "?");
+            case "jdk.ThreadPark":
+                // Bezczynny wątek asynchronicznego logowania nie jest oczekiwaniem na blokadę
+                if (event.getThread() != null && "log-writer".equals(event.getThread().getJavaName())) {
+                    return null;
+                }
+                RecordedClass parkedClass = event.getValue("parkedClass");
+                return "PARK " + (parkedClass != null ? parkedClass.getName() : "?");
+            case "jdk.GarbageCollection":
+                return "GC " + event.getString("name");
+            default:
+                return null;
+        }
+    }
+
+    private static String detailOf(RecordedEvent event) {
+        if (event.getEventType().getName().equals("cinema.RequestStage")) {
+            return "requestId=" + event.getLong("requestId") +
+                   " screeningId=" + event.getInt("screeningId") +
+                   " bytes=" + event.getInt("payloadBytes");
+        }
+        if (event.getEventType().getName().equals("cinema.DaoCall") && event.getString("messageType") != null) {
+            return event.getString("messageType") +
+                   " requestId=" + event.getLong("requestId") +
+                   " screeningId=" + event.getInt("screeningId") +
+                   " bytes=" + event.getInt("payloadBytes");
+        }
+        Duration duration = event.getDuration();
+        return "thread=" + (event.getThread() != null ? event.getThread().getJavaName() : "?") +
+               " at " + event.getStartTime() + " (" + duration.toMillis() + " ms)";
+    }
+}
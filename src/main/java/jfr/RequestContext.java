@@ -0,0 +1,32 @@
+package jfr;
+
+// Żądanie obsługiwane w bieżącym wątku roboczym. Wywołania DAO nie znają żądania, które je spowodowało -
+// DaoCallEvent odczytuje stąd typ komunikatu, seans, identyfikator i rozmiar żądania przy zapisie zdarzenia.
+// Jeden obiekt na wątek, nadpisywany przy każdym żądaniu - bez alokacji na ścieżce obsługi.
+public final class RequestContext {
+    private static final ThreadLocal<RequestContext> CURRENT = ThreadLocal.withInitial(RequestContext::new);
+
+    String messageType;
+    int screeningId;
+    long requestId;
+    int payloadBytes;
+
+    private RequestContext() {
+    }
+
+    public static void enter(String messageType, int screeningId, long requestId, int payloadBytes) {
+        RequestContext context = CURRENT.get();
+        context.messageType = messageType;
+        context.screeningId = screeningId;
+        context.requestId = requestId;
+        context.payloadBytes = payloadBytes;
+    }
+
+    public static void exit() {
+        enter(null, 0, 0, 0);
+    }
+
+    static RequestContext current() {
+        return CURRENT.get();
+    }
+}
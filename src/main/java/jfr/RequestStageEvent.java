@@ -0,0 +1,42 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Etap obsługi żądania w UDPServer: RECEIVE -> DECODE -> PROCESS -> ENCODE -> SEND
+@Name("cinema.RequestStage")
+@Label("Request Stage")
+@Category({"Cinema", "Server"})
+@Description("Single stage of handling a UDP request")
+@StackTrace(false)
+public class RequestStageEvent extends jdk.jfr.Event {
+    public static final String RECEIVE = "RECEIVE";
+    public static final String DECODE = "DECODE";
+    public static final String PROCESS = "PROCESS";
+    public static final String ENCODE = "ENCODE";
+    public static final String SEND = "SEND";
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Message Type")
+    public String messageType;
+
+    @Label("Screening Id")
+    public int screeningId;
+
+    @Label("Payload Bytes")
+    @DataAmount
+    public int payloadBytes;
+
+    @Label("Request Id")
+    public long requestId;
+
+    public RequestStageEvent(String stage) {
+        this.stage = stage;
+    }
+}
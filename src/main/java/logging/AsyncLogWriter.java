@@ -0,0 +1,161 @@
+package logging;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Ograniczony bufor pierścieniowy (wielu producentów, jeden konsument) opróżniany przez wątek w tle.
+// Sloty są alokowane raz; wątek zgłaszający zapisuje tylko referencje do szablonu i argumentów,
+// a formatowanie i zapis na konsolę odbywają się w wątku piszącym. Gdy bufor jest pełny,
+// komunikat jest odrzucany zamiast blokować obsługę żądania.
+final class AsyncLogWriter {
+    private static final class Slot {
+        volatile long sequence;
+        long timestamp;
+        Level level;
+        String logger;
+        String thread;
+        String template;
+        Object arg1;
+        Object arg2;
+        Object arg3;
+        Throwable error;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final PrintStream out;
+    private final PrintStream err;
+    private long head;
+    private volatile boolean running = true;
+    private final Thread writerThread;
+
+    AsyncLogWriter(int capacity, PrintStream out, PrintStream err) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            slots[i].sequence = i;
+        }
+        this.out = out;
+        this.err = err;
+
+        this.writerThread = new Thread(this::drainLoop, "log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    boolean publish(Level level, String logger, String template,
+                    Object arg1, Object arg2, Object arg3, Throwable error) {
+        while (true) {
+            long position = tail.get();
+            Slot slot = slots[(int) (position & mask)];
+            long difference = slot.sequence - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slot.timestamp = System.currentTimeMillis();
+                    slot.level = level;
+                    slot.logger = logger;
+                    slot.thread = Thread.currentThread().getName();
+                    slot.template = template;
+                    slot.arg1 = arg1;
+                    slot.arg2 = arg2;
+                    slot.arg3 = arg3;
+                    slot.error = error;
+                    slot.sequence = position + 1;
+                    return true;
+                }
+            } else if (difference < 0) {
+                // Bufor pełny - wątek piszący nie nadąża
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(256);
+        while (running || hasPending()) {
+            if (!drain(line)) {
+                LockSupport.parkNanos(1_000_000L);
+            }
+        }
+    }
+
+    private boolean hasPending() {
+        return slots[(int) (head & mask)].sequence == head + 1;
+    }
+
+    private boolean drain(StringBuilder line) {
+        boolean wroteAny = false;
+        while (true) {
+            Slot slot = slots[(int) (head & mask)];
+            if (slot.sequence != head + 1) {
+                break;
+            }
+
+            line.setLength(0);
+            format(slot, line);
+            PrintStream stream = slot.level.compareTo(Level.WARN) >= 0 ? err : out;
+            stream.println(line);
+            if (slot.error != null) {
+                slot.error.printStackTrace(stream);
+            }
+
+            slot.template = null;
+            slot.arg1 = null;
+            slot.arg2 = null;
+            slot.arg3 = null;
+            slot.error = null;
+            slot.sequence = head + slots.length;
+            head++;
+            wroteAny = true;
+        }
+
+        if (wroteAny) {
+            out.flush();
+            err.flush();
+        }
+        return wroteAny;
+    }
+
+    private static void format(Slot slot, StringBuilder line) {
+        line.append(LocalDateTime.ofInstant(Instant.ofEpochMilli(slot.timestamp), ZoneId.systemDefault()))
+            .append(' ').append(slot.level)
+            .append(" [").append(slot.thread).append("] ")
+            .append(slot.logger).append(" - ");
+
+        // Podstawienie argumentów w miejsce kolejnych "{}"
+        Object[] args = {slot.arg1, slot.arg2, slot.arg3};
+        String template = slot.template;
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argIndex < args.length && (placeholder = template.indexOf("{}", start)) >= 0) {
+            line.append(template, start, placeholder).append(args[argIndex++]);
+            start = placeholder + 2;
+        }
+        line.append(template, start, template.length());
+    }
+
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package logging;
+
+public enum Level {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR
+}
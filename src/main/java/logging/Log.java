@@ -0,0 +1,47 @@
+package logging;
+
+import java.util.Locale;
+
+// Punkt wejścia do logowania. Konfiguracja przez właściwości systemowe:
+// -Dcinema.log.level=DEBUG|INFO|WARN|ERROR (domyślnie INFO), -Dcinema.log.bufferSize=<liczba slotów>.
+public final class Log {
+    private static volatile Level level =
+            Level.valueOf(System.getProperty("cinema.log.level", "INFO").toUpperCase(Locale.ROOT));
+
+    private static final class WriterHolder {
+        static final AsyncLogWriter WRITER =
+                new AsyncLogWriter(Integer.getInteger("cinema.log.bufferSize", 8192), System.out, System.err);
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(WRITER::shutdown, "log-shutdown"));
+        }
+    }
+
+    private Log() {
+    }
+
+    public static Logger getLogger(Class<?> type) {
+        return new Logger(type.getSimpleName());
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    public static long getDroppedCount() {
+        return WriterHolder.WRITER.getDroppedCount();
+    }
+
+    // Zatrzymuje wątek piszący po opróżnieniu bufora
+    public static void shutdown() {
+        WriterHolder.WRITER.shutdown();
+    }
+
+    static AsyncLogWriter writer() {
+        return WriterHolder.WRITER;
+    }
+}
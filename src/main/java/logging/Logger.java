@@ -0,0 +1,98 @@
+package logging;
+
+// Logger z parametryzowanymi komunikatami ("Reservation {} confirmed"). Gdy poziom jest wyłączony,
+// wywołanie kończy się na porównaniu poziomów - nic nie jest formatowane ani alokowane.
+// Przeciążenia z 1-3 argumentami pozwalają uniknąć tablic varargs na ścieżce obsługi żądań.
+public class Logger {
+    private final String name;
+
+    Logger(String name) {
+        this.name = name;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.compareTo(Log.getLevel()) >= 0;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public void debug(String message) {
+        log(Level.DEBUG, message, null, null, null, null);
+    }
+
+    public void debug(String template, Object arg) {
+        log(Level.DEBUG, template, arg, null, null, null);
+    }
+
+    public void debug(String template, Object arg1, Object arg2) {
+        log(Level.DEBUG, template, arg1, arg2, null, null);
+    }
+
+    public void debug(String template, Object arg1, Object arg2, Object arg3) {
+        log(Level.DEBUG, template, arg1, arg2, arg3, null);
+    }
+
+    public void info(String message) {
+        log(Level.INFO, message, null, null, null, null);
+    }
+
+    public void info(String template, Object arg) {
+        log(Level.INFO, template, arg, null, null, null);
+    }
+
+    public void info(String template, Object arg1, Object arg2) {
+        log(Level.INFO, template, arg1, arg2, null, null);
+    }
+
+    public void info(String template, Object arg1, Object arg2, Object arg3) {
+        log(Level.INFO, template, arg1, arg2, arg3, null);
+    }
+
+    public void warn(String message) {
+        log(Level.WARN, message, null, null, null, null);
+    }
+
+    public void warn(String template, Object arg) {
+        log(Level.WARN, template, arg, null, null, null);
+    }
+
+    public void warn(String template, Object arg1, Object arg2) {
+        log(Level.WARN, template, arg1, arg2, null, null);
+    }
+
+    public void warn(String template, Object arg1, Object arg2, Object arg3) {
+        log(Level.WARN, template, arg1, arg2, arg3, null);
+    }
+
+    public void error(String message) {
+        log(Level.ERROR, message, null, null, null, null);
+    }
+
+    public void error(String template, Object arg) {
+        log(Level.ERROR, template, arg, null, null, null);
+    }
+
+    public void error(String template, Object arg1, Object arg2) {
+        log(Level.ERROR, template, arg1, arg2, null, null);
+    }
+
+    public void error(String template, Object arg1, Object arg2, Object arg3) {
+        log(Level.ERROR, template, arg1, arg2, arg3, null);
+    }
+
+    public void error(String message, Throwable error) {
+        log(Level.ERROR, message, null, null, null, error);
+    }
+
+    public void error(String template, Object arg, Throwable error) {
+        log(Level.ERROR, template, arg, null, null, error);
+    }
+
+    private void log(Level level, String template, Object arg1, Object arg2, Object arg3, Throwable error) {
+        if (isEnabled(level)) {
+            Log.writer().publish(level, name, template, arg1, arg2, arg3, error);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package metrics;
+
+import models.HistogramSummary;
+import models.MessageType;
+import models.StatsSnapshot;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Metryki serwera: latencja żądań per typ komunikatu i wynik, czasy wywołań DAO,
+// rozmiary pakietów oraz głębokość kolejki obsługi. Wszystkie liczniki są bezblokadowe.
+public class ServerMetrics {
+    public enum Outcome {
+        SUCCESS,
+        ERROR,
+        QUEUED
+    }
+
+    private final long startedAt = System.currentTimeMillis();
+
+    private final Histogram[][] requestLatency;
+    private final Map<String, Histogram> daoLatency = new ConcurrentHashMap<>();
+    private final Histogram requestBytes = new Histogram("packet.request.bytes");
+    private final Histogram responseBytes = new Histogram("packet.response.bytes");
+
+    private final LongAdder packetsReceived = new LongAdder();
+    private final LongAdder decodeErrors = new LongAdder();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final Map<String, LongAdder> events = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> queueWait = new ConcurrentHashMap<>();
+
+    public ServerMetrics() {
+        MessageType[] types = MessageType.values();
+        Outcome[] outcomes = Outcome.values();
+        requestLatency = new Histogram[types.length][outcomes.length];
+        for (MessageType type : types) {
+            for (Outcome outcome : outcomes) {
+                requestLatency[type.ordinal()][outcome.ordinal()] =
+                        new Histogram("request." + type + "." + outcome + ".us");
+            }
+        }
+    }
+
+    public void recordRequest(MessageType type, boolean success, long elapsedNanos) {
+        recordRequest(type, success ? Outcome.SUCCESS : Outcome.ERROR, elapsedNanos);
+    }
+
+    public void recordRequest(MessageType type, Outcome outcome, long elapsedNanos) {
+        requestLatency[type.ordinal()][outcome.ordinal()].record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+    }
+
+    public void recordDao(String operation, long elapsedNanos) {
+        daoLatency.computeIfAbsent(operation, op -> new Histogram("dao." + op + ".us"))
+                .record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+    }
+
+    public void recordPacketReceived(int bytes) {
+        packetsReceived.increment();
+        requestBytes.record(bytes);
+    }
+
+    public void recordResponseSent(int bytes) {
+        responseBytes.record(bytes);
+    }
+
+    public void recordDecodeError() {
+        decodeErrors.increment();
+    }
+
+    // Czas oczekiwania żądania w kolejce dyspozytora, per klasa żądań
+    public void recordQueueWait(String requestClass, long elapsedNanos) {
+        queueWait.computeIfAbsent(requestClass, c -> new Histogram("dispatch." + c + ".wait.us"))
+                .record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+    }
+
+    // Wartość odczytywana przy każdej migawce (np. bieżąca głębokość kolejki)
+    public void registerGauge(String name, LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    // Licznik zdarzeń nazwanych przez wywołującego (np. holds.expired)
+    public void increment(String event) {
+        events.computeIfAbsent(event, e -> new LongAdder()).increment();
+    }
+
+    public void increment(String event, long delta) {
+        events.computeIfAbsent(event, e -> new LongAdder()).add(delta);
+    }
+
+    public void requestQueued() {
+        int depth = queueDepth.incrementAndGet();
+        int currentMax = maxQueueDepth.get();
+        while (depth > currentMax && !maxQueueDepth.compareAndSet(currentMax, depth)) {
+            currentMax = maxQueueDepth.get();
+        }
+    }
+
+    public void requestFinished() {
+        queueDepth.decrementAndGet();
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public StatsSnapshot snapshot() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("packets.received", packetsReceived.sum());
+        counters.put("packets.decodeErrors", decodeErrors.sum());
+        counters.put("queue.depth", (long) queueDepth.get());
+        counters.put("queue.maxDepth", (long) maxQueueDepth.get());
+        for (Map.Entry<String, LongAdder> event : events.entrySet()) {
+            counters.put(event.getKey(), event.getValue().sum());
+        }
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            counters.put(gauge.getKey(), gauge.getValue().getAsLong());
+        }
+
+        List<HistogramSummary> histograms = new ArrayList<>();
+        for (Histogram[] byOutcome : requestLatency) {
+            for (Histogram histogram : byOutcome) {
+                // Pomijamy typy komunikatów, które nie wystąpiły - migawka zostaje mała
+                if (histogram.getCount() > 0) {
+                    counters.put(histogram.getName().replace(".us", ".count"), histogram.getCount());
+                    histograms.add(histogram.summarize());
+                }
+            }
+        }
+        for (Histogram histogram : daoLatency.values()) {
+            histograms.add(histogram.summarize());
+        }
+        for (Histogram histogram : queueWait.values()) {
+            histograms.add(histogram.summarize());
+        }
+        histograms.add(requestBytes.summarize());
+        histograms.add(responseBytes.summarize());
+
+        return new StatsSnapshot(LocalDateTime.now(), System.currentTimeMillis() - startedAt, counters, histograms);
+    }
+}
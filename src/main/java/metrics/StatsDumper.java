@@ -0,0 +1,63 @@
+package metrics;
+
+import logging.Log;
+import logging.Logger;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Okresowo dopisuje migawkę metryk do lokalnego pliku (domyślnie stats.log co 60 s).
+// Konfiguracja: -Dcinema.stats.file=<plik>, -Dcinema.stats.intervalSeconds=<s> (0 wyłącza zrzuty).
+public class StatsDumper {
+    private static final Logger LOG = Log.getLogger(StatsDumper.class);
+
+    private final ServerMetrics metrics;
+    private final String file;
+    private final long intervalSeconds;
+    private ScheduledExecutorService scheduler;
+
+    public StatsDumper(ServerMetrics metrics) {
+        this(metrics,
+             System.getProperty("cinema.stats.file", "stats.log"),
+             Long.getLong("cinema.stats.intervalSeconds", 60L));
+    }
+
+    public StatsDumper(ServerMetrics metrics, String file, long intervalSeconds) {
+        this.metrics = metrics;
+        this.file = file;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    public void start() {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stats-dumper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::dump, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public void dump() {
+        try (Writer writer = new FileWriter(file, true)) {
+            writer.write(metrics.snapshot().toString());
+            writer.write(System.lineSeparator());
+        } catch (IOException e) {
+            LOG.error("Error writing stats to {}", file, e);
+        }
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            dump();
+        }
+    }
+}
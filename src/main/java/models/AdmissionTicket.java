@@ -0,0 +1,60 @@
+package models;
+
+import java.io.Serializable;
+
+// Bilet z kolejki do seansu objętego poczekalnią. Serwer nie przechowuje biletów -
+// token to podpis (seans, pozycja, czas wydania, moment wpuszczenia) kluczem serwera, sprawdzany przy każdym żądaniu.
+public class AdmissionTicket implements Serializable {
+    private int screeningId;
+    private long position;
+    private long issuedAt;
+    private long admitAt; // szacowana chwila, w której horyzont mija pozycję - od niej liczy się ważność
+    private long token;
+    private long retryAfterMillis;
+
+    public AdmissionTicket(int screeningId, long position, long issuedAt, long admitAt, long token) {
+        this.screeningId = screeningId;
+        this.position = position;
+        this.issuedAt = issuedAt;
+        this.admitAt = admitAt;
+        this.token = token;
+    }
+
+    public int getScreeningId() {
+        return screeningId;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public long getAdmitAt() {
+        return admitAt;
+    }
+
+    public long getToken() {
+        return token;
+    }
+
+    // Szacowany czas do wpuszczenia, ustawiany przez serwer w odpowiedzi QUEUED
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    public void setRetryAfterMillis(long retryAfterMillis) {
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionTicket{" +
+                "screeningId=" + screeningId +
+                ", position=" + position +
+                ", retryAfterMillis=" + retryAfterMillis +
+                '}';
+    }
+}
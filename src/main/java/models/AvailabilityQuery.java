@@ -0,0 +1,102 @@
+package models;
+
+import util.SeatPacker;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+// Żądanie CHECK_AVAILABILITY: wiele pytań o dostępność w jednym datagramie. Każdy wpis to seans
+// i albo konkretne miejsca (upakowane jak w SeatPacker), albo liczba osób, dla której szukamy
+// tylu sąsiednich wolnych miejsc w jednym rzędzie. Odpowiedzią jest byte[] z kodem na wpis.
+public class AvailabilityQuery implements Serializable {
+    public static final byte AVAILABLE = 0;
+    public static final byte UNAVAILABLE = 1;
+    public static final byte UNKNOWN_SCREENING = 2;
+    public static final byte INVALID = 3;
+
+    private int size;
+    private int[] screeningIds = new int[8];
+    private int[] partySizes = new int[8]; // 0 dla wpisów z konkretnymi miejscami
+    private int[][] seats = new int[8][];
+
+    public AvailabilityQuery addSeats(int screeningId, List<Seat> requestedSeats) {
+        int[] packed = new int[requestedSeats.size()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = SeatPacker.pack(requestedSeats.get(i).getRow(), requestedSeats.get(i).getNumber());
+        }
+        add(screeningId, 0, packed);
+        return this;
+    }
+
+    public AvailabilityQuery addPartySize(int screeningId, int partySize) {
+        add(screeningId, partySize, null);
+        return this;
+    }
+
+    private void add(int screeningId, int partySize, int[] packedSeats) {
+        if (size == screeningIds.length) {
+            int capacity = Math.max(8, size * 2); // zdeserializowane tablice mogą być puste
+            screeningIds = Arrays.copyOf(screeningIds, capacity);
+            partySizes = Arrays.copyOf(partySizes, capacity);
+            seats = Arrays.copyOf(seats, capacity);
+        }
+        screeningIds[size] = screeningId;
+        partySizes[size] = partySize;
+        seats[size] = packedSeats;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getScreeningId(int index) {
+        return screeningIds[index];
+    }
+
+    public int getPartySize(int index) {
+        return partySizes[index];
+    }
+
+    // Upakowane miejsca wpisu albo null dla wpisu z liczbą osób
+    public int[] getPackedSeats(int index) {
+        return seats[index];
+    }
+
+    // Na łącze trafiają tylko zajęte pozycje tablic - jako kopie, wysyłany obiekt się nie zmienia
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("size", size);
+        fields.put("screeningIds", Arrays.copyOf(screeningIds, size));
+        fields.put("partySizes", Arrays.copyOf(partySizes, size));
+        fields.put("seats", Arrays.copyOf(seats, size));
+        out.writeFields();
+    }
+
+    // Rozmiar i tablice przychodzą od klienta - niespójne zapytanie odrzucamy już przy dekodowaniu
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        int size = fields.get("size", -1);
+        int[] screeningIds = (int[]) fields.get("screeningIds", null);
+        int[] partySizes = (int[]) fields.get("partySizes", null);
+        int[][] seats = (int[][]) fields.get("seats", null);
+        if (size < 0 || screeningIds == null || partySizes == null || seats == null
+                || screeningIds.length < size || partySizes.length < size || seats.length < size) {
+            throw new InvalidObjectException("Inconsistent availability query");
+        }
+        this.size = size;
+        this.screeningIds = screeningIds;
+        this.partySizes = partySizes;
+        this.seats = seats;
+    }
+
+    @Override
+    public String toString() {
+        return "AvailabilityQuery{entries=" + size + '}';
+    }
+}
@@ -0,0 +1,63 @@
+package models;
+
+import java.io.Serializable;
+
+// Żądanie FIND_BEST_SEATS: N sąsiednich miejsc na seans.
+// Z danymi klienta (hold) serwer od razu rezerwuje znalezione miejsca w jednym kroku.
+public class BestSeatsRequest implements Serializable {
+    private int screeningId;
+    private int partySize;
+    private boolean hold;
+    private String customerName;
+    private String customerEmail;
+    private String customerPhone;
+
+    // Tylko propozycja miejsc
+    public BestSeatsRequest(int screeningId, int partySize) {
+        this.screeningId = screeningId;
+        this.partySize = partySize;
+    }
+
+    // Propozycja i rezerwacja znalezionych miejsc
+    public BestSeatsRequest(int screeningId, int partySize,
+                            String customerName, String customerEmail, String customerPhone) {
+        this(screeningId, partySize);
+        this.hold = true;
+        this.customerName = customerName;
+        this.customerEmail = customerEmail;
+        this.customerPhone = customerPhone;
+    }
+
+    public int getScreeningId() {
+        return screeningId;
+    }
+
+    public int getPartySize() {
+        return partySize;
+    }
+
+    public boolean isHold() {
+        return hold;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public String getCustomerPhone() {
+        return customerPhone;
+    }
+
+    @Override
+    public String toString() {
+        return "BestSeatsRequest{" +
+                "screeningId=" + screeningId +
+                ", partySize=" + partySize +
+                ", hold=" + hold +
+                '}';
+    }
+}
@@ -0,0 +1,24 @@
+package models;
+
+// Strona rezerwacji klienta (GET_RESERVATIONS_BY_EMAIL); kursor to pozycja na liście rezerwacji danego adresu
+public class EmailPageRequest extends PageRequest {
+    private String email;
+
+    public EmailPageRequest(String email, int cursor, int limit) {
+        super(cursor, limit);
+        this.email = email;
+    }
+
+    public static EmailPageRequest first(String email, int limit) {
+        return new EmailPageRequest(email, 0, limit);
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return "EmailPageRequest{email='" + email + "', cursor=" + getCursor() + ", limit=" + getLimit() + '}';
+    }
+}
@@ -0,0 +1,35 @@
+package models;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Żądanie GET_FREE_SLOTS: wolne okna w sali danego dnia, w których zmieści się seans
+// trwający co najmniej minutes minut (razem ze sprzątaniem sali po nim)
+public class FreeSlotsQuery implements Serializable {
+    private int roomId;
+    private LocalDate date;
+    private int minutes;
+
+    public FreeSlotsQuery(int roomId, LocalDate date, int minutes) {
+        this.roomId = roomId;
+        this.date = date;
+        this.minutes = minutes;
+    }
+
+    public int getRoomId() {
+        return roomId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int getMinutes() {
+        return minutes;
+    }
+
+    @Override
+    public String toString() {
+        return "FreeSlotsQuery{roomId=" + roomId + ", date=" + date + ", minutes=" + minutes + '}';
+    }
+}
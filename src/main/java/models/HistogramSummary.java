@@ -0,0 +1,70 @@
+package models;
+
+import java.io.Serializable;
+
+public class HistogramSummary implements Serializable {
+    private String name;
+    private long count;
+    private double mean;
+    private long p50;
+    private long p90;
+    private long p99;
+    private long p999;
+    private long max;
+
+    public HistogramSummary(String name, long count, double mean, long p50, long p90, long p99, long p999, long max) {
+        this.name = name;
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return name +
+                " count=" + count +
+                " mean=" + String.format("%.1f", mean) +
+                " p50=" + p50 +
+                " p90=" + p90 +
+                " p99=" + p99 +
+                " p999=" + p999 +
+                " max=" + max;
+    }
+}
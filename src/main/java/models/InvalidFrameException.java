@@ -0,0 +1,22 @@
+package models;
+
+import java.io.IOException;
+
+// Pakiet odrzucony przez MessageCodec - powód służy do liczenia odrzuceń
+public class InvalidFrameException extends IOException {
+    private final MessageCodec.DropReason reason;
+
+    public InvalidFrameException(MessageCodec.DropReason reason) {
+        super("Invalid frame: " + reason);
+        this.reason = reason;
+    }
+
+    public InvalidFrameException(MessageCodec.DropReason reason, Throwable cause) {
+        super("Invalid frame: " + reason, cause);
+        this.reason = reason;
+    }
+
+    public MessageCodec.DropReason getReason() {
+        return reason;
+    }
+}
@@ -1,19 +1,21 @@
 package models;
 
 import java.io.Serializable;
+import util.IdGenerator;
 
 public class Message implements Serializable {
     private MessageType type;
     private Object payload;
     private String statusCode;
     private String statusMessage;
-    private String requestId;
+    private long requestId;
+    private AdmissionTicket admissionTicket; // bilet z poczekalni, dołączany do żądań rezerwacyjnych
 
     // Konstruktor dla żądań
     public Message(MessageType type, Object payload) {
         this.type = type;
         this.payload = payload;
-        this.requestId = java.util.UUID.randomUUID().toString();
+        this.requestId = IdGenerator.next();
     }
 
     // Konstruktor dla odpowiedzi
@@ -22,7 +24,7 @@ public class Message implements Serializable {
         this.payload = payload;
         this.statusCode = statusCode;
         this.statusMessage = statusMessage;
-        this.requestId = java.util.UUID.randomUUID().toString();
+        this.requestId = IdGenerator.next();
     }
 
     // Konstruktor do tworzenia odpowiedzi na podstawie żądania
@@ -42,6 +44,20 @@ public class Message implements Serializable {
         return createResponse(responsePayload, "SUCCESS", "Operation completed successfully");
     }
 
+    // Odpowiedź serwera odrzucającego żądanie z powodu przeciążenia; nie jest powiązana z identyfikatorem żądania,
+    // bo serwer nie deserializuje odrzuconego pakietu
+    public static Message busy(long retryAfterMillis) {
+        Message response = new Message(MessageType.RESPONSE, retryAfterMillis, "BUSY",
+                                       "Server busy, retry after " + retryAfterMillis + " ms");
+        response.setRequestId(0);
+        return response;
+    }
+
+    // Odpowiedź z poczekalni: klient ponawia żądanie z biletem po ticket.getRetryAfterMillis()
+    public Message createQueuedResponse(AdmissionTicket ticket) {
+        return createResponse(ticket, "QUEUED", "Queued, retry after " + ticket.getRetryAfterMillis() + " ms");
+    }
+
     // Getters
     public MessageType getType() {
         return type;
@@ -59,7 +75,11 @@ public class Message implements Serializable {
         return statusMessage;
     }
 
-    public String getRequestId() {
+    public AdmissionTicket getAdmissionTicket() {
+        return admissionTicket;
+    }
+
+    public long getRequestId() {
         return requestId;
     }
 
@@ -80,7 +100,11 @@ public class Message implements Serializable {
         this.statusMessage = statusMessage;
     }
 
-    public void setRequestId(String requestId) {
+    public void setAdmissionTicket(AdmissionTicket admissionTicket) {
+        this.admissionTicket = admissionTicket;
+    }
+
+    public void setRequestId(long requestId) {
         this.requestId = requestId;
     }
 
@@ -93,6 +117,18 @@ public class Message implements Serializable {
         return "ERROR".equals(statusCode);
     }
 
+    public boolean isBusy() {
+        return "BUSY".equals(statusCode);
+    }
+
+    public long getRetryAfterMillis() {
+        return payload instanceof Long ? (Long) payload : 0;
+    }
+
+    public boolean isQueued() {
+        return "QUEUED".equals(statusCode);
+    }
+
     public boolean isRequest() {
         return type != MessageType.RESPONSE;
     }
@@ -107,7 +143,7 @@ public class Message implements Serializable {
                 "type=" + type +
                 ", statusCode='" + statusCode + '\'' +
                 ", statusMessage='" + statusMessage + '\'' +
-                ", requestId='" + requestId + '\'' +
+                ", requestId=" + requestId +
                 '}';
     }
 }
@@ -0,0 +1,143 @@
+package models;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+// Wspólna serializacja komunikatów dla serwera, klienta i narzędzi.
+//
+// Każdy komunikat ma 14-bajtowy nagłówek: magic "CINE", wersja, typ komunikatu (ordinal MessageType),
+// długość treści i CRC32C treści. Nagłówek sprawdzany jest przed utworzeniem ObjectInputStream,
+// więc śmieci i obce pakiety odpadają bez alokacji obiektów, a typ jest znany bez deserializacji.
+// Sama deserializacja przechodzi przez filtr dopuszczający tylko klasy modelu i kilka klas JDK,
+// z limitami głębokości, liczby referencji i długości tablic (java.lang.Object dopuszczony dla tablic
+// Object[] w listach niemodyfikowalnych - sam Object nie jest serializowalny).
+//
+// Filtr można zastąpić: -Dcinema.serialFilter=<wzorzec w składni jdk.serialFilter>
+public final class MessageCodec {
+    public enum DropReason {
+        TOO_SHORT,
+        TOO_LARGE,
+        BAD_MAGIC,
+        BAD_VERSION,
+        BAD_TYPE,
+        BAD_LENGTH,
+        BAD_CHECKSUM,
+        REJECTED_CLASS,  // odrzucone przez filtr deserializacji
+        MALFORMED        // poprawna ramka, ale treść nie jest komunikatem
+    }
+
+    public static final int HEADER_LENGTH = 14;
+    public static final int MAX_DATAGRAM = 65507;
+
+    private static final int MAGIC = 0x43494E45; // "CINE"
+    private static final byte VERSION = 1;
+    private static final MessageType[] TYPES = MessageType.values();
+
+    // Jeden licznik sumy kontrolnej na wątek - sprawdzenie nagłówka nie alokuje nic na pakiet
+    private static final ThreadLocal<CRC32C> CHECKSUMS = ThreadLocal.withInitial(CRC32C::new);
+
+    // Odpowiedź BUSY: "BUSY" + int czas ponowienia w ms. Nie ma nagłówka ramki - magic jest inny,
+    // więc tych 8 bajtów nie da się pomylić z komunikatem.
+    private static final int BUSY_MAGIC = 0x42555359;
+    private static final int BUSY_LENGTH = 8;
+
+    private static final String DEFAULT_FILTER =
+            "maxdepth=20;maxrefs=65536;maxarray=10000;maxbytes=" + MAX_DATAGRAM + ";" +
+            "models.*;java.lang.Object;java.lang.String;java.lang.Number;java.lang.Integer;java.lang.Long;java.lang.Double;" +
+            "java.lang.Boolean;java.lang.Enum;java.util.ArrayList;java.util.HashMap;java.util.LinkedHashMap;java.util.Map$Entry;" +
+            "java.util.CollSer;java.util.ImmutableCollections$*;java.time.*;!*";
+
+    private static final ObjectInputFilter FILTER =
+            ObjectInputFilter.Config.createFilter(System.getProperty("cinema.serialFilter", DEFAULT_FILTER));
+
+    private MessageCodec() {
+    }
+
+    public static byte[] encodeBusy(long retryAfterMillis) {
+        return ByteBuffer.allocate(BUSY_LENGTH).putInt(BUSY_MAGIC).putInt((int) retryAfterMillis).array();
+    }
+
+    public static byte[] encode(Message message) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(new byte[HEADER_LENGTH]); // miejsce na nagłówek, uzupełniany po serializacji
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(message);
+        }
+        byte[] data = baos.toByteArray();
+
+        CRC32C crc = CHECKSUMS.get();
+        crc.reset();
+        crc.update(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+        ByteBuffer.wrap(data)
+                .putInt(MAGIC)
+                .put(VERSION)
+                .put((byte) message.getType().ordinal())
+                .putInt(data.length - HEADER_LENGTH)
+                .putInt((int) crc.getValue());
+        return data;
+    }
+
+    // null, gdy ramka jest poprawna; sprawdza tylko nagłówek i sumę kontrolną, nic nie alokuje
+    public static DropReason validate(byte[] data, int offset, int length) {
+        if (length < HEADER_LENGTH) {
+            return DropReason.TOO_SHORT;
+        }
+        if (length > MAX_DATAGRAM) {
+            return DropReason.TOO_LARGE;
+        }
+        if (readInt(data, offset) != MAGIC) {
+            return DropReason.BAD_MAGIC;
+        }
+        if (data[offset + 4] != VERSION) {
+            return DropReason.BAD_VERSION;
+        }
+        if ((data[offset + 5] & 0xFF) >= TYPES.length) {
+            return DropReason.BAD_TYPE;
+        }
+        if (readInt(data, offset + 6) != length - HEADER_LENGTH) {
+            return DropReason.BAD_LENGTH;
+        }
+        CRC32C crc = CHECKSUMS.get();
+        crc.reset();
+        crc.update(data, offset + HEADER_LENGTH, length - HEADER_LENGTH);
+        if (readInt(data, offset + 10) != (int) crc.getValue()) {
+            return DropReason.BAD_CHECKSUM;
+        }
+        return null;
+    }
+
+    // Typ komunikatu z nagłówka ramki, która przeszła validate
+    public static MessageType typeOf(byte[] data, int offset) {
+        return TYPES[data[offset + 5] & 0xFF];
+    }
+
+    public static Message decode(byte[] data, int offset, int length) throws IOException, ClassNotFoundException {
+        if (length == BUSY_LENGTH && readInt(data, offset) == BUSY_MAGIC) {
+            return Message.busy(readInt(data, offset + 4));
+        }
+        DropReason reason = validate(data, offset, length);
+        if (reason != null) {
+            throw new InvalidFrameException(reason);
+        }
+
+        ByteArrayInputStream bais = new ByteArrayInputStream(data, offset + HEADER_LENGTH, length - HEADER_LENGTH);
+        try (ObjectInputStream ois = new ObjectInputStream(bais)) {
+            ois.setObjectInputFilter(FILTER);
+            return (Message) ois.readObject();
+        } catch (InvalidClassException e) {
+            throw new InvalidFrameException(DropReason.REJECTED_CLASS, e);
+        }
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16
+               | (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+    }
+}
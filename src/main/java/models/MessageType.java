@@ -12,5 +12,17 @@ public enum MessageType {
     GET_SEAT_STATUS,
     GET_RESERVATION_STATUS,
     RESPONSE,
-    GET_RESERVATIONS_BY_EMAIL
+    GET_RESERVATIONS_BY_EMAIL,
+    STATS,
+    FIND_BEST_SEATS,
+    HOLD_SEATS,
+    CONFIRM_RESERVATION,
+    JOIN_QUEUE,
+    GET_SCREENING,
+    GET_SEAT_COUNTS,
+    GET_SCREENINGS_BY_DATE,
+    GET_FREE_SLOTS,
+    IMPORT_SCHEDULE,
+    SEARCH_MOVIES,
+    GET_STATS_REPORT
 }
@@ -0,0 +1,28 @@
+package models;
+
+// Żądanie SEARCH_MOVIES: tekst wyszukiwania i strona wyników; kursor to pozycja w rankingu
+public class MovieSearchRequest extends PageRequest {
+    private String query;
+
+    public MovieSearchRequest(String query, int cursor, int limit) {
+        super(cursor, limit);
+        this.query = query;
+    }
+
+    public static MovieSearchRequest first(String query, int limit) {
+        return new MovieSearchRequest(query, 0, limit);
+    }
+
+    public MovieSearchRequest next(Page<?> page) {
+        return new MovieSearchRequest(query, page.getNextCursor(), getLimit());
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    @Override
+    public String toString() {
+        return "MovieSearchRequest{query='" + query + "', cursor=" + getCursor() + ", limit=" + getLimit() + '}';
+    }
+}
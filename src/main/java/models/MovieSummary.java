@@ -0,0 +1,50 @@
+package models;
+
+import java.io.Serializable;
+
+// Film na liście wyników wyszukiwania (SEARCH_MOVIES) - bez opisu, który jest najdłuższym polem filmu
+public class MovieSummary implements Serializable {
+    private int movieId;
+    private String title;
+    private int releaseYear;
+    private String genre;
+    private String director;
+
+    public MovieSummary(int movieId, String title, int releaseYear, String genre, String director) {
+        this.movieId = movieId;
+        this.title = title;
+        this.releaseYear = releaseYear;
+        this.genre = genre;
+        this.director = director;
+    }
+
+    public static MovieSummary of(Movie movie) {
+        return new MovieSummary(movie.getMovieId(), movie.getTitle(), movie.getReleaseYear(),
+                                movie.getGenre(), movie.getDirector());
+    }
+
+    public int getMovieId() {
+        return movieId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getReleaseYear() {
+        return releaseYear;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public String getDirector() {
+        return director;
+    }
+
+    @Override
+    public String toString() {
+        return "MovieSummary{movieId=" + movieId + ", title='" + title + "', releaseYear=" + releaseYear + '}';
+    }
+}
@@ -0,0 +1,36 @@
+package models;
+
+import java.io.Serializable;
+import java.util.List;
+
+// Strona listy z kursorem następnej strony; nextCursor < 0 oznacza ostatnią stronę
+public class Page<T> implements Serializable {
+    private List<T> items;
+    private int nextCursor;
+
+    public Page(List<T> items, int nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public int getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor >= 0;
+    }
+
+    public PageRequest next(int limit) {
+        return new PageRequest(nextCursor, limit);
+    }
+
+    @Override
+    public String toString() {
+        return "Page{items=" + items.size() + ", nextCursor=" + nextCursor + '}';
+    }
+}
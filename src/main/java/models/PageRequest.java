@@ -0,0 +1,31 @@
+package models;
+
+import java.io.Serializable;
+
+// Żądanie kolejnej strony listy: kursor z poprzedniej strony (0 dla pierwszej) i rozmiar strony
+public class PageRequest implements Serializable {
+    private int cursor;
+    private int limit;
+
+    public PageRequest(int cursor, int limit) {
+        this.cursor = cursor;
+        this.limit = limit;
+    }
+
+    public static PageRequest first(int limit) {
+        return new PageRequest(0, limit);
+    }
+
+    public int getCursor() {
+        return cursor;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return "PageRequest{cursor=" + cursor + ", limit=" + limit + '}';
+    }
+}
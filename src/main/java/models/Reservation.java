@@ -4,7 +4,8 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import util.IdGenerator;
 
 public class Reservation implements Serializable {
     private String reservationId;
@@ -16,11 +17,12 @@ public class Reservation implements Serializable {
     private LocalDateTime reservationTime;
     private ReservationStatus status;
     private double totalPrice;
+    private LocalDateTime holdExpiresAt; // tylko dla rezerwacji PENDING
 
     // Constructor
     public Reservation(Screening screening, List<Seat> reservedSeats, 
                        String customerName, String customerEmail, String customerPhone) {
-        this.reservationId = UUID.randomUUID().toString();
+        this.reservationId = Long.toString(IdGenerator.next());
         this.screening = screening;
         this.reservedSeats = new ArrayList<>(reservedSeats);
         this.customerName = customerName;
@@ -57,6 +59,12 @@ public class Reservation implements Serializable {
         return customerEmail;
     }
 
+    // Klucz indeksu po adresie email: bez spacji na brzegach i bez rozróżniania wielkości liter,
+    // tak samo jak kolumna emailKey w bazie (LOWER(TRIM(customerEmail)))
+    public static String emailKey(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
     public String getCustomerPhone() {
         return customerPhone;
     }
@@ -73,6 +81,10 @@ public class Reservation implements Serializable {
         return totalPrice;
     }
 
+    public LocalDateTime getHoldExpiresAt() {
+        return holdExpiresAt;
+    }
+
     // Setters
     public void setReservationId(String reservationId) {
         this.reservationId = reservationId;
@@ -110,6 +122,7 @@ public class Reservation implements Serializable {
 
     // Utility methods
     public void confirmReservation() {
+        boolean wasSold = status == ReservationStatus.CONFIRMED;
         this.status = ReservationStatus.CONFIRMED;
         
         // Update seat status in the screening
@@ -117,9 +130,36 @@ public class Reservation implements Serializable {
             screening.updateSeatStatus(seat.getRow(), seat.getNumber(), false);
             seat.setStatus(SeatStatus.OCCUPIED);
         }
+        if (!wasSold) {
+            screening.addSoldSeats(reservedSeats.size());
+        }
     }
 
+    // Zajmuje miejsca bez potwierdzenia - rezerwacja czeka w stanie PENDING na potwierdzenie lub wygaśnięcie
+    public void holdSeats(LocalDateTime expiresAt) {
+        this.status = ReservationStatus.PENDING;
+        this.holdExpiresAt = expiresAt;
+        
+        for (Seat seat : reservedSeats) {
+            screening.updateSeatStatus(seat.getRow(), seat.getNumber(), false);
+            seat.setStatus(SeatStatus.RESERVED);
+        }
+    }
+    
+    public void expireHold() {
+        this.status = ReservationStatus.EXPIRED;
+        
+        // Free up the seats
+        for (Seat seat : reservedSeats) {
+            screening.updateSeatStatus(seat.getRow(), seat.getNumber(), true);
+            seat.setStatus(SeatStatus.AVAILABLE);
+        }
+    }
+    
     public void cancelReservation() {
+        if (status == ReservationStatus.CONFIRMED) {
+            screening.addSoldSeats(-reservedSeats.size());
+        }
         this.status = ReservationStatus.CANCELLED;
         
         // Free up the seats
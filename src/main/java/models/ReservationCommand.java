@@ -0,0 +1,103 @@
+package models;
+
+import util.SeatPacker;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+// Żądanie MAKE_RESERVATION / HOLD_SEATS: identyfikator seansu, upakowane miejsca (row << 16 | number)
+// i dane klienta. Serwer buduje rezerwację na własnym seansie - klient nie przesyła grafu
+// Screening z filmem, salą i mapą miejsc.
+public class ReservationCommand implements Serializable {
+    private int screeningId;
+    private int[] seats;
+    private String customerName;
+    private String customerEmail;
+    private String customerPhone;
+
+    public ReservationCommand(int screeningId, List<Seat> seats,
+                              String customerName, String customerEmail, String customerPhone) {
+        this.screeningId = screeningId;
+        this.seats = new int[seats.size()];
+        for (int i = 0; i < this.seats.length; i++) {
+            this.seats[i] = SeatPacker.pack(seats.get(i).getRow(), seats.get(i).getNumber());
+        }
+        this.customerName = customerName;
+        this.customerEmail = customerEmail;
+        this.customerPhone = customerPhone;
+    }
+
+    // Dawny format żądania z pełną rezerwacją albo null, gdy lista miejsc jest pusta lub zawiera null
+    public static ReservationCommand from(Reservation reservation) {
+        List<Seat> seats = reservation.getReservedSeats();
+        if (seats == null || seats.contains(null)) {
+            return null;
+        }
+        return new ReservationCommand(reservation.getScreening().getScreeningId(), reservation.getReservedSeats(),
+                                      reservation.getCustomerName(), reservation.getCustomerEmail(),
+                                      reservation.getCustomerPhone());
+    }
+
+    // Miejsca przychodzą od klienta: co najmniej jedno, każde w granicach sali i żadne dwa razy.
+    // Powtórzone miejsce zajęłoby jeden bit, a bilety, cenę i liczniki sprzedaży policzyłoby podwójnie.
+    // Duplikaty wykrywa bitmapa zajętych miejsc, jedno słowo 64-bitowe na 64 miejsca rzędu.
+    public boolean hasValidSeats(Room room) {
+        if (seats == null || seats.length == 0) {
+            return false;
+        }
+        int words = (room.getSeatsPerRow() + 63) >>> 6;
+        long[] taken = new long[room.getRows() * words];
+        for (int packed : seats) {
+            int row = SeatPacker.rowOf(packed);
+            int bit = SeatPacker.numberOf(packed) - 1;
+            if (row < 1 || row > room.getRows() || bit < 0 || bit >= room.getSeatsPerRow()) {
+                return false;
+            }
+            int word = (row - 1) * words + (bit >>> 6);
+            long mask = 1L << bit;
+            if ((taken[word] & mask) != 0) {
+                return false;
+            }
+            taken[word] |= mask;
+        }
+        return true;
+    }
+
+    public int getScreeningId() {
+        return screeningId;
+    }
+
+    public int[] getPackedSeats() {
+        return seats;
+    }
+
+    public List<Seat> getSeats() {
+        List<Seat> result = new ArrayList<>(seats.length);
+        for (int packed : seats) {
+            result.add(new Seat(SeatPacker.rowOf(packed), SeatPacker.numberOf(packed), SeatStatus.RESERVED));
+        }
+        return result;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public String getCustomerPhone() {
+        return customerPhone;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationCommand{" +
+                "screeningId=" + screeningId +
+                ", seats=" + seats.length +
+                ", customerEmail='" + customerEmail + '\'' +
+                '}';
+    }
+}
@@ -3,8 +3,9 @@ package models;
 public enum ReservationStatus {
     PENDING,
     CONFIRMED,
-    CANCELLED
+    CANCELLED,
+    EXPIRED
 }
 
 // This enum represents the status of a reservation in a cinema booking system.
-// It can be either PENDING, CONFIRMED, or CANCELLED.
+// It can be either PENDING, CONFIRMED, CANCELLED, or EXPIRED (a PENDING hold that was never confirmed).
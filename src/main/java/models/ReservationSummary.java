@@ -0,0 +1,71 @@
+package models;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Rezerwacja na liście (GET_RESERVATIONS_BY_EMAIL): tytuł i czas seansu zamiast całego grafu Screening
+public class ReservationSummary implements Serializable {
+    private String reservationId;
+    private int screeningId;
+    private String movieTitle;
+    private LocalDateTime screeningTime;
+    private int seatCount;
+    private double totalPrice;
+    private ReservationStatus status;
+
+    public ReservationSummary(String reservationId, int screeningId, String movieTitle, LocalDateTime screeningTime,
+                              int seatCount, double totalPrice, ReservationStatus status) {
+        this.reservationId = reservationId;
+        this.screeningId = screeningId;
+        this.movieTitle = movieTitle;
+        this.screeningTime = screeningTime;
+        this.seatCount = seatCount;
+        this.totalPrice = totalPrice;
+        this.status = status;
+    }
+
+    public static ReservationSummary of(Reservation reservation) {
+        Screening screening = reservation.getScreening();
+        return new ReservationSummary(reservation.getReservationId(), screening.getScreeningId(),
+                                      screening.getMovie().getTitle(), screening.getScreeningTime(),
+                                      reservation.getReservedSeats().size(), reservation.getTotalPrice(),
+                                      reservation.getStatus());
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public int getScreeningId() {
+        return screeningId;
+    }
+
+    public String getMovieTitle() {
+        return movieTitle;
+    }
+
+    public LocalDateTime getScreeningTime() {
+        return screeningTime;
+    }
+
+    public int getSeatCount() {
+        return seatCount;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationSummary{" +
+                "reservationId='" + reservationId + '\'' +
+                ", movieTitle='" + movieTitle + '\'' +
+                ", status=" + status +
+                '}';
+    }
+}
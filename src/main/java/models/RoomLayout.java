@@ -0,0 +1,65 @@
+package models;
+
+import util.SeatPacker;
+
+import java.io.Serializable;
+
+// Odpowiedź GET_ROOM: wymiary sali i deskryptor układu z SeatPacker.packLayout (tylko miejsca
+// o statusie innym niż AVAILABLE) zamiast tablicy Seat[][]. Serwer tworzy jeden egzemplarz na salę.
+public class RoomLayout implements Serializable {
+    private int roomId;
+    private String roomName;
+    private int rows;
+    private int seatsPerRow;
+    private byte[] layout;
+
+    public RoomLayout(int roomId, String roomName, int rows, int seatsPerRow, byte[] layout) {
+        this.roomId = roomId;
+        this.roomName = roomName;
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+        this.layout = layout;
+    }
+
+    public static RoomLayout of(Room room) {
+        return new RoomLayout(room.getRoomId(), room.getRoomName(), room.getRows(), room.getSeatsPerRow(),
+                              SeatPacker.packLayout(room));
+    }
+
+    // Pełna sala odtworzona po stronie klienta
+    public Room toRoom() {
+        Room room = new Room(roomId, roomName, rows, seatsPerRow);
+        SeatPacker.applyLayout(room, layout);
+        return room;
+    }
+
+    public int getRoomId() {
+        return roomId;
+    }
+
+    public String getRoomName() {
+        return roomName;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+
+    public byte[] getLayout() {
+        return layout;
+    }
+
+    @Override
+    public String toString() {
+        return "RoomLayout{" +
+                "roomId=" + roomId +
+                ", roomName='" + roomName + '\'' +
+                ", rows=" + rows +
+                ", seatsPerRow=" + seatsPerRow +
+                '}';
+    }
+}
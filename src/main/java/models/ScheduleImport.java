@@ -0,0 +1,78 @@
+package models;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+// Żądanie IMPORT_SCHEDULE: wiele nowych seansów w równoległych tablicach (film, sala, początek, cena).
+// Początek to minuta liczona od 1970-01-01T00:00 czasu lokalnego - 20 bajtów na seans, więc w jednym
+// datagramie mieści się ok. 3000 seansów. Większy plan (np. cały kwartał) wysyła się kilkoma żądaniami.
+public class ScheduleImport implements Serializable {
+    private int size;
+    private int[] movieIds = new int[16];
+    private int[] roomIds = new int[16];
+    private int[] startMinutes = new int[16];
+    private double[] ticketPrices = new double[16];
+
+    public ScheduleImport add(int movieId, int roomId, LocalDateTime start, double ticketPrice) {
+        if (size == movieIds.length) {
+            int capacity = Math.max(16, size * 2); // zdeserializowane tablice mogą być puste
+            movieIds = Arrays.copyOf(movieIds, capacity);
+            roomIds = Arrays.copyOf(roomIds, capacity);
+            startMinutes = Arrays.copyOf(startMinutes, capacity);
+            ticketPrices = Arrays.copyOf(ticketPrices, capacity);
+        }
+        movieIds[size] = movieId;
+        roomIds[size] = roomId;
+        startMinutes[size] = (int) (start.toEpochSecond(ZoneOffset.UTC) / 60);
+        ticketPrices[size] = ticketPrice;
+        size++;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Po deserializacji rozmiar i tablice przychodzą od klienta - sprawdzamy, zanim serwer ich użyje
+    public boolean isWellFormed() {
+        return size >= 0 && movieIds != null && roomIds != null && startMinutes != null && ticketPrices != null
+               && movieIds.length >= size && roomIds.length >= size
+               && startMinutes.length >= size && ticketPrices.length >= size;
+    }
+
+    public int getMovieId(int index) {
+        return movieIds[index];
+    }
+
+    public int getRoomId(int index) {
+        return roomIds[index];
+    }
+
+    public LocalDateTime getStartTime(int index) {
+        return LocalDateTime.ofEpochSecond(startMinutes[index] * 60L, 0, ZoneOffset.UTC);
+    }
+
+    public double getTicketPrice(int index) {
+        return ticketPrices[index];
+    }
+
+    // Na łącze trafiają tylko zajęte pozycje tablic - jako kopie, wysyłany obiekt się nie zmienia
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("size", size);
+        fields.put("movieIds", Arrays.copyOf(movieIds, size));
+        fields.put("roomIds", Arrays.copyOf(roomIds, size));
+        fields.put("startMinutes", Arrays.copyOf(startMinutes, size));
+        fields.put("ticketPrices", Arrays.copyOf(ticketPrices, size));
+        out.writeFields();
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduleImport{screenings=" + size + '}';
+    }
+}
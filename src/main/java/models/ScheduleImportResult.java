@@ -0,0 +1,56 @@
+package models;
+
+import java.io.Serializable;
+
+// Odpowiedź IMPORT_SCHEDULE. Import jest niepodzielny: albo wszystkie seanse zostały dodane
+// (identyfikatory kolejne od firstScreeningId), albo żaden - wtedy rejected zawiera pozycje odrzuconych
+// seansów, a conflictsWith seans, z którym każdy z nich koliduje (0 - nieznany film lub sala, zła cena,
+// początek w przeszłości albo poza obsługiwanym zakresem 1970-2106)
+public class ScheduleImportResult implements Serializable {
+    private int imported;
+    private int firstScreeningId;
+    private int[] rejected;
+    private int[] conflictsWith;
+
+    private ScheduleImportResult(int imported, int firstScreeningId, int[] rejected, int[] conflictsWith) {
+        this.imported = imported;
+        this.firstScreeningId = firstScreeningId;
+        this.rejected = rejected;
+        this.conflictsWith = conflictsWith;
+    }
+
+    public static ScheduleImportResult imported(int count, int firstScreeningId) {
+        return new ScheduleImportResult(count, firstScreeningId, new int[0], new int[0]);
+    }
+
+    public static ScheduleImportResult rejected(int[] rejected, int[] conflictsWith) {
+        return new ScheduleImportResult(0, 0, rejected, conflictsWith);
+    }
+
+    public boolean isImported() {
+        return rejected.length == 0;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getFirstScreeningId() {
+        return firstScreeningId;
+    }
+
+    public int[] getRejected() {
+        return rejected;
+    }
+
+    public int[] getConflictsWith() {
+        return conflictsWith;
+    }
+
+    @Override
+    public String toString() {
+        return isImported()
+                ? "ScheduleImportResult{imported=" + imported + ", firstScreeningId=" + firstScreeningId + '}'
+                : "ScheduleImportResult{rejected=" + rejected.length + '}';
+    }
+}
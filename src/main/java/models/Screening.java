@@ -12,6 +12,13 @@ public class Screening implements Serializable {
     private LocalDateTime screeningTime;
     private double ticketPrice;
     private boolean[][] availableSeats;
+    
+    // Wolne miejsca jako bity (bit i w rzędzie = miejsce i+1), budowane przy pierwszym użyciu
+    private transient long[][] freeSeatWords;
+    
+    // Liczniki miejsc w jednym polu: (sprzedane << 32) | wolne. Zmieniane razem ze stanem miejsc
+    // (po stronie serwera pod blokadą seansu); odczyt bez blokady zawsze daje spójną parę.
+    private volatile long seatCounts;
 
     public Screening(int screeningId, Movie movie, Room room, LocalDateTime screeningTime, double ticketPrice) {
         this.screeningId = screeningId;
@@ -24,11 +31,13 @@ public class Screening implements Serializable {
     }
 
     private void initializeSeats() {
+        freeSeatWords = null;
         for (int i = 0; i < room.getRows(); i++) {
             for (int j = 0; j < room.getSeatsPerRow(); j++) {
                 availableSeats[i][j] = true; // All seats are initially available
             }
         }
+        seatCounts = getCapacity();
     }
 
     // Getters
@@ -79,6 +88,8 @@ public class Screening implements Serializable {
 
     public void setAvailableSeats(boolean[][] availableSeats) {
         this.availableSeats = availableSeats;
+        this.freeSeatWords = null;
+        this.seatCounts = ((long) getSoldSeatCount() << 32) | countAvailableSeats();
     }
 
     // Utility methods
@@ -93,7 +104,89 @@ public class Screening implements Serializable {
         if (row < 1 || row > room.getRows() || seatNumber < 1 || seatNumber > room.getSeatsPerRow()) {
             throw new IllegalArgumentException("Invalid seat position");
         }
+        if (availableSeats[row - 1][seatNumber - 1] == isAvailable) {
+            return;
+        }
         availableSeats[row - 1][seatNumber - 1] = isAvailable;
+        seatCounts += isAvailable ? 1 : -1;
+        
+        if (freeSeatWords != null) {
+            int bit = seatNumber - 1;
+            if (isAvailable) {
+                freeSeatWords[row - 1][bit >>> 6] |= 1L << bit;
+            } else {
+                freeSeatWords[row - 1][bit >>> 6] &= ~(1L << bit);
+            }
+        }
+    }
+    
+    // Słowa bitowe wolnych miejsc w rzędzie (numeracja od 1); tablica tylko do odczytu
+    public long[] getFreeSeatWords(int row) {
+        if (freeSeatWords == null) {
+            long[][] words = new long[availableSeats.length][];
+            for (int i = 0; i < availableSeats.length; i++) {
+                boolean[] seats = availableSeats[i];
+                words[i] = new long[(seats.length + 63) >>> 6];
+                for (int j = 0; j < seats.length; j++) {
+                    if (seats[j]) {
+                        words[i][j >>> 6] |= 1L << j;
+                    }
+                }
+            }
+            freeSeatWords = words;
+        }
+        return freeSeatWords[row - 1];
+    }
+    
+    public int getCapacity() {
+        return room.getRows() * room.getSeatsPerRow();
+    }
+    
+    public int getAvailableSeatCount() {
+        return availableOf(seatCounts);
+    }
+    
+    public int getSoldSeatCount() {
+        return soldOf(seatCounts);
+    }
+    
+    // Oba liczniki z jednego odczytu; rozpakowanie przez availableOf/soldOf
+    public long getSeatCounts() {
+        return seatCounts;
+    }
+    
+    public static int availableOf(long seatCounts) {
+        return (int) seatCounts;
+    }
+    
+    public static int soldOf(long seatCounts) {
+        return (int) (seatCounts >>> 32);
+    }
+    
+    // Miejsca potwierdzonych rezerwacji; zablokowane (PENDING) nie są ani wolne, ani sprzedane
+    public void addSoldSeats(int delta) {
+        seatCounts += (long) delta << 32;
+    }
+    
+    private int countAvailableSeats() {
+        int count = 0;
+        for (boolean[] row : availableSeats) {
+            for (boolean available : row) {
+                if (available) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+    
+    // Kopia stanu miejsc - bezpieczna do wysłania, gdy inne wątki zmieniają oryginał
+    public boolean[][] copyAvailableSeats() {
+        boolean[][] copy = new boolean[availableSeats.length][];
+        for (int i = 0; i < availableSeats.length; i++) {
+            copy[i] = availableSeats[i].clone();
+        }
+        return copy;
     }
 
     public void updateSeatsStatusFromReservations(List<Reservation> reservations) {
@@ -111,6 +204,7 @@ public class Screening implements Serializable {
             for (Seat seat : res.getReservedSeats()) {
                 updateSeatStatus(seat.getRow(), seat.getNumber(), false);
             }
+            addSoldSeats(res.getReservedSeats().size());
         }
     }
 
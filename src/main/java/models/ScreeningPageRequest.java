@@ -0,0 +1,29 @@
+package models;
+
+// Strona repertuaru (GET_SCREENINGS), opcjonalnie tylko seanse jednego filmu (movieId 0 = wszystkie);
+// kursor to pozycja na liście seansów serwera, od której zaczyna się strona
+public class ScreeningPageRequest extends PageRequest {
+    private int movieId;
+
+    public ScreeningPageRequest(int movieId, int cursor, int limit) {
+        super(cursor, limit);
+        this.movieId = movieId;
+    }
+
+    public static ScreeningPageRequest first(int movieId, int limit) {
+        return new ScreeningPageRequest(movieId, 0, limit);
+    }
+
+    public ScreeningPageRequest next(Page<?> page) {
+        return new ScreeningPageRequest(movieId, page.getNextCursor(), getLimit());
+    }
+
+    public int getMovieId() {
+        return movieId;
+    }
+
+    @Override
+    public String toString() {
+        return "ScreeningPageRequest{movieId=" + movieId + ", cursor=" + getCursor() + ", limit=" + getLimit() + '}';
+    }
+}
@@ -0,0 +1,87 @@
+package models;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Seans na liście (GET_SCREENINGS): bez sali z mapą miejsc i bez tablicy dostępności.
+// Pełny seans pobiera się osobno przez GET_SCREENING.
+public class ScreeningSummary implements Serializable {
+    private int screeningId;
+    private int movieId;
+    private String movieTitle;
+    private LocalDateTime screeningTime;
+    private double ticketPrice;
+    private String roomName;
+    private int availableSeats;
+    private int soldSeats;
+    private int capacity;
+
+    public ScreeningSummary(int screeningId, int movieId, String movieTitle, LocalDateTime screeningTime,
+                            double ticketPrice, String roomName, int availableSeats, int soldSeats, int capacity) {
+        this.screeningId = screeningId;
+        this.movieId = movieId;
+        this.movieTitle = movieTitle;
+        this.screeningTime = screeningTime;
+        this.ticketPrice = ticketPrice;
+        this.roomName = roomName;
+        this.availableSeats = availableSeats;
+        this.soldSeats = soldSeats;
+        this.capacity = capacity;
+    }
+
+    // Liczniki odczytywane jednym odczytem - wolne i sprzedane są ze sobą spójne
+    public static ScreeningSummary of(Screening screening) {
+        long counts = screening.getSeatCounts();
+        return new ScreeningSummary(screening.getScreeningId(), screening.getMovie().getMovieId(),
+                                    screening.getMovie().getTitle(), screening.getScreeningTime(),
+                                    screening.getTicketPrice(), screening.getRoom().getRoomName(),
+                                    Screening.availableOf(counts), Screening.soldOf(counts),
+                                    screening.getCapacity());
+    }
+
+    public int getScreeningId() {
+        return screeningId;
+    }
+
+    public int getMovieId() {
+        return movieId;
+    }
+
+    public String getMovieTitle() {
+        return movieTitle;
+    }
+
+    public LocalDateTime getScreeningTime() {
+        return screeningTime;
+    }
+
+    public double getTicketPrice() {
+        return ticketPrice;
+    }
+
+    public String getRoomName() {
+        return roomName;
+    }
+
+    public int getAvailableSeats() {
+        return availableSeats;
+    }
+
+    public int getSoldSeats() {
+        return soldSeats;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        return "ScreeningSummary{" +
+                "screeningId=" + screeningId +
+                ", movieTitle='" + movieTitle + '\'' +
+                ", screeningTime=" + screeningTime +
+                ", availableSeats=" + availableSeats +
+                '}';
+    }
+}
@@ -0,0 +1,42 @@
+package models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Seanse rozpoczynające się w przedziale [from, to) (GET_SCREENINGS_BY_DATE), stronami;
+// kursor to liczba seansów przedziału pominiętych na poprzednich stronach
+public class ScreeningTimeRequest extends PageRequest {
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public ScreeningTimeRequest(LocalDateTime from, LocalDateTime to, int cursor, int limit) {
+        super(cursor, limit);
+        this.from = from;
+        this.to = to;
+    }
+
+    public static ScreeningTimeRequest between(LocalDateTime from, LocalDateTime to, int limit) {
+        return new ScreeningTimeRequest(from, to, 0, limit);
+    }
+
+    public static ScreeningTimeRequest day(LocalDate date, int limit) {
+        return between(date.atStartOfDay(), date.plusDays(1).atStartOfDay(), limit);
+    }
+
+    public ScreeningTimeRequest next(Page<?> page) {
+        return new ScreeningTimeRequest(from, to, page.getNextCursor(), getLimit());
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    @Override
+    public String toString() {
+        return "ScreeningTimeRequest{from=" + from + ", to=" + to + ", cursor=" + getCursor() + ", limit=" + getLimit() + '}';
+    }
+}
@@ -0,0 +1,79 @@
+package models;
+
+import java.io.Serializable;
+
+// Odpowiedź GET_SEAT_COUNTS: liczniki miejsc wielu seansów w równoległych tablicach -
+// jedno małe żądanie zamiast pobierania mapy miejsc każdego seansu. Na jedno żądanie przypada najwyżej
+// MAX_SCREENINGS seansów (16 B każdy - mieści się w datagramie i w limicie tablic filtra deserializacji);
+// liczniki wszystkich seansów przychodzą stronami, jak repertuar w GET_SCREENINGS.
+public class SeatCounts implements Serializable {
+    public static final int MAX_SCREENINGS = 1000;
+
+    private int[] screeningIds;
+    private int[] available;
+    private int[] sold;
+    private int[] capacity;
+    private int nextCursor = -1; // kursor następnej strony liczników wszystkich seansów, -1 = ostatnia
+
+    public SeatCounts(int size) {
+        this.screeningIds = new int[size];
+        this.available = new int[size];
+        this.sold = new int[size];
+        this.capacity = new int[size];
+    }
+
+    public SeatCounts(int size, int nextCursor) {
+        this(size);
+        this.nextCursor = nextCursor;
+    }
+
+    public void set(int index, Screening screening) {
+        long counts = screening.getSeatCounts();
+        screeningIds[index] = screening.getScreeningId();
+        available[index] = Screening.availableOf(counts);
+        sold[index] = Screening.soldOf(counts);
+        capacity[index] = screening.getCapacity();
+    }
+
+    public int size() {
+        return screeningIds.length;
+    }
+
+    public int getScreeningId(int index) {
+        return screeningIds[index];
+    }
+
+    public int getAvailable(int index) {
+        return available[index];
+    }
+
+    public int getSold(int index) {
+        return sold[index];
+    }
+
+    public int getCapacity(int index) {
+        return capacity[index];
+    }
+
+    public int getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor >= 0;
+    }
+
+    public PageRequest next(int limit) {
+        return new PageRequest(nextCursor, limit);
+    }
+
+    // Zajęte w tej chwili miejsca (sprzedane i zablokowane) jako ułamek sali
+    public double getFillRatio(int index) {
+        return capacity[index] == 0 ? 0 : 1.0 - (double) available[index] / capacity[index];
+    }
+
+    @Override
+    public String toString() {
+        return "SeatCounts{screenings=" + screeningIds.length + ", nextCursor=" + nextCursor + '}';
+    }
+}
@@ -0,0 +1,10 @@
+package models;
+
+// Grupowanie raportu sprzedaży GET_STATS_REPORT; TOTAL to jeden wiersz dla całego kina
+public enum StatsDimension {
+    TOTAL,
+    SCREENING,
+    MOVIE,
+    ROOM,
+    HOUR_OF_DAY
+}
@@ -0,0 +1,28 @@
+package models;
+
+// Żądanie GET_STATS_REPORT: wymiar raportu i strona wierszy (w kolejności klucza grupy)
+public class StatsReportRequest extends PageRequest {
+    private StatsDimension dimension;
+
+    public StatsReportRequest(StatsDimension dimension, int cursor, int limit) {
+        super(cursor, limit);
+        this.dimension = dimension;
+    }
+
+    public static StatsReportRequest first(StatsDimension dimension, int limit) {
+        return new StatsReportRequest(dimension, 0, limit);
+    }
+
+    public StatsReportRequest next(Page<?> page) {
+        return new StatsReportRequest(dimension, page.getNextCursor(), getLimit());
+    }
+
+    public StatsDimension getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public String toString() {
+        return "StatsReportRequest{dimension=" + dimension + ", cursor=" + getCursor() + ", limit=" + getLimit() + '}';
+    }
+}
@@ -0,0 +1,51 @@
+package models;
+
+import java.io.Serializable;
+
+// Wiersz raportu sprzedaży: grupa (identyfikator seansu, filmu, sali albo godzina rozpoczęcia seansu),
+// potwierdzone rezerwacje, sprzedane bilety, przychód w groszach i liczba miejsc we wszystkich seansach grupy
+public class StatsRow implements Serializable {
+    private int key;
+    private long reservations;
+    private long tickets;
+    private long revenueCents;
+    private long capacity;
+
+    public StatsRow(int key, long reservations, long tickets, long revenueCents, long capacity) {
+        this.key = key;
+        this.reservations = reservations;
+        this.tickets = tickets;
+        this.revenueCents = revenueCents;
+        this.capacity = capacity;
+    }
+
+    public int getKey() {
+        return key;
+    }
+
+    public long getReservations() {
+        return reservations;
+    }
+
+    public long getTickets() {
+        return tickets;
+    }
+
+    public double getRevenue() {
+        return revenueCents / 100.0;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public double getOccupancy() {
+        return capacity > 0 ? (double) tickets / capacity : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StatsRow{key=%d, tickets=%d, revenue=%.2f, occupancy=%.1f%%}",
+                             key, tickets, getRevenue(), getOccupancy() * 100);
+    }
+}
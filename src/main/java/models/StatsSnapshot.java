@@ -0,0 +1,53 @@
+package models;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Migawka metryk serwera zwracana w odpowiedzi na STATS i zapisywana okresowo do pliku.
+// Czasy w histogramach latencji podane są w mikrosekundach, rozmiary pakietów w bajtach.
+public class StatsSnapshot implements Serializable {
+    private LocalDateTime takenAt;
+    private long uptimeMillis;
+    private Map<String, Long> counters;
+    private List<HistogramSummary> histograms;
+
+    public StatsSnapshot(LocalDateTime takenAt, long uptimeMillis,
+                         Map<String, Long> counters, List<HistogramSummary> histograms) {
+        this.takenAt = takenAt;
+        this.uptimeMillis = uptimeMillis;
+        this.counters = counters;
+        this.histograms = histograms;
+    }
+
+    // Getters
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public long getUptimeMillis() {
+        return uptimeMillis;
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public List<HistogramSummary> getHistograms() {
+        return histograms;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Stats ").append(takenAt).append(" (uptime ").append(uptimeMillis / 1000).append("s) ===\n");
+        for (Map.Entry<String, Long> entry : counters.entrySet()) {
+            sb.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        for (HistogramSummary histogram : histograms) {
+            sb.append(histogram).append('\n');
+        }
+        return sb.toString();
+    }
+}
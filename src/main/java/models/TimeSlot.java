@@ -0,0 +1,29 @@
+package models;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Wolne okno w planie sali [start, end): seans może zacząć się najwcześniej o start
+// i musi zakończyć się razem ze sprzątaniem najpóźniej o end
+public class TimeSlot implements Serializable {
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    public TimeSlot(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        return start.toLocalTime() + "-" + end.toLocalTime();
+    }
+}
@@ -0,0 +1,84 @@
+package server;
+
+import models.AvailabilityQuery;
+import models.Room;
+import models.Screening;
+import util.SeatPacker;
+
+import java.util.function.IntFunction;
+
+// Odpowiada na CHECK_AVAILABILITY bezpośrednio na słowach bitowych wolnych miejsc.
+// Konkretne miejsca to test pojedynczych bitów; liczba osób to szukanie bloku sąsiednich wolnych
+// miejsc tą samą metodą co w BestSeatFinder, przerywane przy pierwszym znalezionym rzędzie.
+// Licznik wolnych miejsc seansu pozwala od razu odrzucić grupy większe niż liczba wolnych miejsc.
+public final class AvailabilityChecker {
+    private AvailabilityChecker() {
+    }
+
+    public static byte[] check(AvailabilityQuery query, IntFunction<Screening> screenings) {
+        byte[] answers = new byte[query.size()];
+        long[] starts = new long[0];
+        long[] shifted = new long[0];
+
+        for (int i = 0; i < query.size(); i++) {
+            Screening screening = screenings.apply(query.getScreeningId(i));
+            if (screening == null) {
+                answers[i] = AvailabilityQuery.UNKNOWN_SCREENING;
+                continue;
+            }
+            int words = (screening.getRoom().getSeatsPerRow() + 63) >>> 6;
+            if (starts.length < words) {
+                starts = new long[words];
+                shifted = new long[words];
+            }
+
+            // Blokada seansu: spójny obraz miejsc, także przy pierwszym budowaniu słów bitowych
+            synchronized (screening) {
+                int[] seats = query.getPackedSeats(i);
+                answers[i] = seats != null
+                        ? checkSeats(screening, seats)
+                        : checkPartySize(screening, query.getPartySize(i), starts, shifted);
+            }
+        }
+        return answers;
+    }
+
+    private static byte checkSeats(Screening screening, int[] seats) {
+        Room room = screening.getRoom();
+        if (seats.length == 0) {
+            return AvailabilityQuery.INVALID;
+        }
+        byte answer = AvailabilityQuery.AVAILABLE;
+        for (int packed : seats) {
+            int row = SeatPacker.rowOf(packed);
+            int bit = SeatPacker.numberOf(packed) - 1;
+            if (row < 1 || row > room.getRows() || bit < 0 || bit >= room.getSeatsPerRow()) {
+                return AvailabilityQuery.INVALID;
+            }
+            if ((screening.getFreeSeatWords(row)[bit >>> 6] & (1L << bit)) == 0) {
+                answer = AvailabilityQuery.UNAVAILABLE;
+            }
+        }
+        return answer;
+    }
+
+    private static byte checkPartySize(Screening screening, int partySize, long[] starts, long[] shifted) {
+        Room room = screening.getRoom();
+        if (partySize < 1 || partySize > room.getSeatsPerRow()) {
+            return AvailabilityQuery.INVALID;
+        }
+        if (screening.getAvailableSeatCount() < partySize) {
+            return AvailabilityQuery.UNAVAILABLE;
+        }
+        int words = (room.getSeatsPerRow() + 63) >>> 6;
+        for (int row = 1; row <= room.getRows(); row++) {
+            BestSeatFinder.runStarts(screening.getFreeSeatWords(row), partySize, starts, shifted, words);
+            for (int w = 0; w < words; w++) {
+                if (starts[w] != 0) {
+                    return AvailabilityQuery.AVAILABLE;
+                }
+            }
+        }
+        return AvailabilityQuery.UNAVAILABLE;
+    }
+}
@@ -0,0 +1,159 @@
+package server;
+
+import models.Room;
+import models.Screening;
+import models.Seat;
+import models.SeatStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Wybiera N sąsiednich wolnych miejsc w jednym rzędzie, możliwie blisko środka sali i preferowanego rzędu.
+//
+// Rząd jest przetwarzany jako słowa bitowe wolnych miejsc (Screening.getFreeSeatWords). Maska początków
+// bloków N wolnych miejsc powstaje przez AND z przesuniętą kopią o podwajającą się długość,
+// czyli O(log N) operacji na słowo zamiast sprawdzania każdego miejsca osobno. Rzędy odwiedzane są
+// od preferowanego na zewnątrz, więc przeszukiwanie kończy się, gdy sama kara za rząd przekracza
+// najlepszy dotychczasowy wynik.
+public final class BestSeatFinder {
+    // Preferowany rząd jako ułamek głębokości sali (rząd 1 jest najbliżej ekranu)
+    private static final double PREFERRED_ROW = 0.65;
+    private static final double ROW_WEIGHT = 1.0;
+    private static final double CENTER_WEIGHT = 1.0;
+
+    private BestSeatFinder() {
+    }
+
+    // Zwraca null, gdy w żadnym rzędzie nie ma partySize sąsiednich wolnych miejsc
+    public static List<Seat> find(Screening screening, int partySize) {
+        Room room = screening.getRoom();
+        int rows = room.getRows();
+        int seatsPerRow = room.getSeatsPerRow();
+        if (partySize < 1 || partySize > seatsPerRow) {
+            return null;
+        }
+
+        int words = (seatsPerRow + 63) >>> 6;
+        long[] starts = new long[words];
+        long[] shifted = new long[words];
+        double preferredRow = (rows - 1) * PREFERRED_ROW;
+        double idealStart = (seatsPerRow - partySize) / 2.0;
+
+        double bestScore = Double.MAX_VALUE;
+        int bestRow = -1;
+        int bestStart = -1;
+
+        // Dwa wskaźniki rozchodzące się od preferowanego rzędu - kolejne rzędy mają niemalejącą karę
+        int below = (int) Math.floor(preferredRow);
+        int above = below + 1;
+        while (below >= 0 || above < rows) {
+            int row;
+            if (above >= rows || (below >= 0 && preferredRow - below <= above - preferredRow)) {
+                row = below--;
+            } else {
+                row = above++;
+            }
+
+            double rowPenalty = ROW_WEIGHT * Math.abs(row - preferredRow) / rows;
+            if (rowPenalty >= bestScore) {
+                break;
+            }
+
+            runStarts(screening.getFreeSeatWords(row + 1), partySize, starts, shifted);
+            int start = nearestSetBit(starts, idealStart, seatsPerRow - partySize);
+            if (start < 0) {
+                continue;
+            }
+
+            double score = rowPenalty + CENTER_WEIGHT * Math.abs(start - idealStart) / seatsPerRow;
+            if (score < bestScore) {
+                bestScore = score;
+                bestRow = row;
+                bestStart = start;
+            }
+        }
+
+        if (bestRow < 0) {
+            return null;
+        }
+        List<Seat> seats = new ArrayList<>(partySize);
+        for (int i = 0; i < partySize; i++) {
+            seats.add(new Seat(bestRow + 1, bestStart + i + 1, SeatStatus.RESERVED));
+        }
+        return seats;
+    }
+
+    // starts[bit i] = 1, gdy miejsca i .. i+n-1 są wolne. Bity poza rzędem są zerami,
+    // więc bloki wychodzące poza koniec rzędu odpadają same.
+    static void runStarts(long[] free, int n, long[] starts, long[] shifted) {
+        runStarts(free, n, starts, shifted, starts.length);
+    }
+
+    // Wersja dla tablic roboczych dłuższych niż rząd - używane jest tylko pierwsze words słów
+    static void runStarts(long[] free, int n, long[] starts, long[] shifted, int words) {
+        System.arraycopy(free, 0, starts, 0, words);
+        int covered = 1;
+        while (covered < n) {
+            int shift = Math.min(covered, n - covered);
+            shiftRight(starts, shift, shifted, words);
+            for (int i = 0; i < words; i++) {
+                starts[i] &= shifted[i];
+            }
+            covered += shift;
+        }
+    }
+
+    private static void shiftRight(long[] source, int shift, long[] target, int words) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int i = 0; i < words; i++) {
+            int from = i + wordShift;
+            long low = from < words ? source[from] : 0L;
+            long high = from + 1 < words ? source[from + 1] : 0L;
+            target[i] = bitShift == 0 ? low : (low >>> bitShift) | (high << (64 - bitShift));
+        }
+    }
+
+    // Ustawiony bit (0..max) najbliższy pozycji target, albo -1
+    private static int nearestSetBit(long[] bits, double target, int max) {
+        int pivot = Math.min((int) target, max);
+        int next = nextSetBit(bits, pivot, max);
+        int previous = previousSetBit(bits, pivot);
+        if (next < 0) {
+            return previous;
+        }
+        if (previous < 0) {
+            return next;
+        }
+        return target - previous <= next - target ? previous : next;
+    }
+
+    private static int nextSetBit(long[] bits, int from, int max) {
+        int index = from >>> 6;
+        long word = bits[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int bit = (index << 6) + Long.numberOfTrailingZeros(word);
+                return bit <= max ? bit : -1;
+            }
+            if (++index >= bits.length) {
+                return -1;
+            }
+            word = bits[index];
+        }
+    }
+
+    private static int previousSetBit(long[] bits, int from) {
+        int index = from >>> 6;
+        long word = bits[index] & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (--index < 0) {
+                return -1;
+            }
+            word = bits[index];
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package server;
+
+import logging.Log;
+import logging.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+// Haszowane koło czasowe wygaszające blokady miejsc (rezerwacje PENDING).
+//
+// Każdy termin trafia do kubełka (takt terminu) & mask; kubełek to bezblokadowy stos węzłów.
+// Co takt jeden wątek zdejmuje cały stos bieżącego kubełka, wygasza węzły z minionym terminem,
+// a pozostałe (terminy o pełne obroty koła później) odkłada z powrotem. Nie ma osobnego timera
+// na blokadę ani przeglądania wszystkich blokad - koszt to O(1) na dodanie i na wygaśnięcie.
+// Potwierdzona lub anulowana blokada nie jest usuwana z koła; callback po prostu jej nie znajdzie.
+public class HoldExpiryWheel {
+    private static final Logger LOG = Log.getLogger(HoldExpiryWheel.class);
+
+    private static final class Node {
+        final String id;
+        final long deadlineTick;
+        Node next;
+
+        Node(String id, long deadlineTick) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final AtomicReferenceArray<Node> buckets;
+    private final Consumer<String> onExpire;
+    private final long startMillis = System.currentTimeMillis();
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private long processedTick = -1; // ostatni przetworzony takt, tylko wątek koła
+    private ScheduledExecutorService ticker;
+
+    public HoldExpiryWheel(long tickMillis, int wheelSize, Consumer<String> onExpire) {
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new AtomicReferenceArray<>(size);
+        this.onExpire = onExpire;
+    }
+
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> advance(System.currentTimeMillis()), tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdown();
+        }
+    }
+
+    // Terminy zaokrąglane są w górę do pełnego taktu - blokada nigdy nie wygasa przed czasem
+    public void schedule(String id, long expiresAtMillis) {
+        long tick = (expiresAtMillis - startMillis + tickMillis - 1) / tickMillis;
+        push(new Node(id, tick));
+        scheduled.incrementAndGet();
+    }
+
+    private void push(Node node) {
+        int index = (int) (node.deadlineTick & mask);
+        while (true) {
+            Node head = buckets.get(index);
+            node.next = head;
+            if (buckets.compareAndSet(index, head, node)) {
+                return;
+            }
+        }
+    }
+
+    // Przetwarza wszystkie takty do chwili now; wywoływane przez jeden wątek
+    synchronized void advance(long now) {
+        long currentTick = (now - startMillis) / tickMillis;
+        // Po długiej przerwie wystarczy jeden obrót - każdy kubełek zostanie odwiedzony
+        long from = Math.max(processedTick + 1, currentTick - mask);
+        for (long tick = from; tick <= currentTick; tick++) {
+            Node node = buckets.getAndSet((int) (tick & mask), null);
+            while (node != null) {
+                Node next = node.next;
+                if (node.deadlineTick <= currentTick) {
+                    expired.incrementAndGet();
+                    try {
+                        onExpire.accept(node.id);
+                    } catch (RuntimeException e) {
+                        // Wyjątek zatrzymałby zadanie cykliczne, a z nim wygaszanie wszystkich blokad
+                        LOG.error("Error expiring hold {}", node.id, e);
+                    }
+                } else {
+                    push(node);
+                }
+                node = next;
+            }
+        }
+        processedTick = currentTick;
+    }
+
+    public long getScheduledCount() {
+        return scheduled.get();
+    }
+
+    public long getExpiredCount() {
+        return expired.get();
+    }
+}
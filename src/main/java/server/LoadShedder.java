@@ -0,0 +1,46 @@
+package server;
+
+import java.util.concurrent.TimeUnit;
+
+// Kontrola przyjęć w ścieżce odbioru: gdy zaległość dyspozytora przekracza limit głębokości
+// albo szacowanego czasu oczekiwania, pakiet jest odrzucany jeszcze przed deserializacją,
+// a klient dostaje krótką odpowiedź BUSY z czasem, po którym warto ponowić żądanie.
+// Dzięki temu przy przeciążeniu serwer obsługuje tyle, ile zdąży, zamiast kolejkować
+// żądania, na które klienci i tak przestali czekać.
+//
+// Konfiguracja: -Dcinema.shed.maxQueue=<żądań> (domyślnie 256),
+// -Dcinema.shed.maxWaitMillis=<ms> (domyślnie 200); 0 wyłącza dany limit.
+public class LoadShedder {
+    private static final long MIN_RETRY_MILLIS = 50;
+    private static final long MAX_RETRY_MILLIS = 5000;
+
+    private final PriorityDispatcher dispatcher;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+
+    public LoadShedder(PriorityDispatcher dispatcher, int maxQueue, long maxWaitMillis) {
+        this.dispatcher = dispatcher;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    public static LoadShedder fromSystemProperties(PriorityDispatcher dispatcher) {
+        return new LoadShedder(dispatcher,
+                               Integer.getInteger("cinema.shed.maxQueue", 256),
+                               Long.getLong("cinema.shed.maxWaitMillis", 200L));
+    }
+
+    // 0, gdy żądanie można przyjąć; w przeciwnym razie sugerowany czas ponowienia w ms
+    public long retryAfterMillis() {
+        int queued = dispatcher.getQueuedCount();
+        long waitNanos = dispatcher.estimateWaitNanos();
+        boolean overDepth = maxQueue > 0 && queued >= maxQueue;
+        boolean overWait = maxWaitNanos > 0 && waitNanos >= maxWaitNanos;
+        if (!overDepth && !overWait) {
+            return 0;
+        }
+        // Klient wraca, gdy obecna zaległość powinna zostać obsłużona
+        long retry = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        return Math.max(MIN_RETRY_MILLIS, Math.min(MAX_RETRY_MILLIS, retry));
+    }
+}
@@ -0,0 +1,337 @@
+package server;
+
+import models.Movie;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Indeks odwrócony katalogu filmów dla SEARCH_MOVIES: słowo -> filmy (tytuł, reżyser, gatunek, język, rok).
+//
+// Słowa są sprowadzane do małych liter bez znaków diakrytycznych ("Popiół" i "popiol" to to samo słowo).
+// Każde słowo zapytania pasuje do słów indeksu równych mu albo od niego zaczynających się (od 2 znaków),
+// a film musi pasować do wszystkich słów zapytania. Wynik: suma wag pól, w których słowo wystąpiło
+// (tytuł najwyżej), pełne słowo liczy się podwójnie względem prefiksu.
+//
+// Filmy dostają kolejne numery wewnętrzne, więc listy filmów przy słowach są posortowane i dopisywanie
+// jest O(1); zmiana filmu to usunięcie i dodanie pod nowym numerem.
+public class MovieSearchIndex {
+    private static final int TITLE = 1;
+    private static final int DIRECTOR = 2;
+    private static final int GENRE = 4;
+    private static final int LANGUAGE = 8;
+    private static final int YEAR = 16;
+
+    private static final int MIN_PREFIX = 2;
+    private static final int MAX_EXPANSIONS = 256; // ile słów indeksu może rozwinąć jeden prefiks
+
+    private static final class Posting {
+        int[] docs = new int[2];
+        byte[] fields = new byte[2];
+        int size;
+
+        void add(int doc, int field) {
+            if (size > 0 && docs[size - 1] == doc) {
+                fields[size - 1] |= field;
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            docs[size] = doc;
+            fields[size] = (byte) field;
+            size++;
+        }
+
+        void remove(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i >= 0) {
+                System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+                System.arraycopy(fields, i + 1, fields, i, size - i - 1);
+                size--;
+            }
+        }
+    }
+
+    // Tablice robocze wyszukiwania, po jednym komplecie na wątek, indeksowane numerem filmu.
+    // Znacznik epoki zamiast czyszczenia: mark[doc] == epoka oznacza, że film pasuje do bieżącego słowa.
+    private static final class Scratch {
+        int[] mark = new int[0];
+        int[] best = new int[0];
+        int[] total = new int[0];
+        int[] candidates = new int[0];
+        int epoch;
+
+        // Znaczniki zerowane tylko przed zapytaniem, nigdy w jego trakcie - każde słowo zużywa jedną epokę
+        Scratch ensure(int docs, int terms) {
+            if (epoch > Integer.MAX_VALUE - terms) {
+                Arrays.fill(mark, 0);
+                epoch = 0;
+            }
+            if (mark.length < docs) {
+                int size = Math.max(docs, mark.length * 2);
+                mark = new int[size];
+                best = new int[size];
+                total = new int[size];
+                candidates = new int[size];
+                epoch = 0;
+            }
+            return this;
+        }
+
+        int nextEpoch() {
+            return ++epoch;
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final TreeMap<String, Posting> tokens = new TreeMap<>();
+    private final List<Movie> docs = new ArrayList<>();       // numer wewnętrzny -> film (null po usunięciu)
+    private final Map<Integer, Integer> docByMovieId = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MovieSearchIndex(List<Movie> movies) {
+        for (Movie movie : movies) {
+            add(movie);
+        }
+    }
+
+    // Dodaje film albo zastępuje wcześniejszą wersję filmu o tym samym identyfikatorze
+    public void add(Movie movie) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(movie.getMovieId());
+            int doc = docs.size();
+            docs.add(movie);
+            docByMovieId.put(movie.getMovieId(), doc);
+            forEachToken(movie, (token, field) -> tokens.computeIfAbsent(token, k -> new Posting()).add(doc, field));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int movieId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(movieId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDoc(int movieId) {
+        Integer doc = docByMovieId.remove(movieId);
+        if (doc == null) {
+            return;
+        }
+        Movie movie = docs.set(doc, null);
+        forEachToken(movie, (token, field) -> {
+            Posting posting = tokens.get(token);
+            if (posting != null) {
+                posting.remove(doc);
+                if (posting.size == 0) {
+                    tokens.remove(token);
+                }
+            }
+        });
+    }
+
+    // Filmy pasujące do zapytania od najlepiej dopasowanego (przy równym wyniku w kolejności dodania),
+    // pozycje [offset, offset + limit)
+    public List<Movie> search(String query, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(query, terms);
+        if (terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            Scratch scratch = SCRATCH.get().ensure(docs.size(), terms.size());
+            int candidates = 0;
+            int previous = 0;
+            boolean first = true;
+            for (String term : terms) {
+                int epoch = scratch.nextEpoch();
+                candidates = scoreTerm(term, scratch, epoch, first ? -1 : previous);
+                if (candidates == 0) {
+                    return new ArrayList<>();
+                }
+                for (int i = 0; i < candidates; i++) {
+                    int doc = scratch.candidates[i];
+                    scratch.total[doc] = (first ? 0 : scratch.total[doc]) + scratch.best[doc];
+                }
+                previous = epoch;
+                first = false;
+            }
+
+            // Najlepsze offset + limit wyników: kopiec minimalny kluczy (wynik << 32 | odwrócony numer filmu)
+            int wanted = (int) Math.min((long) offset + limit, candidates);
+            long[] heap = new long[wanted];
+            int heapSize = 0;
+            for (int i = 0; i < candidates; i++) {
+                int doc = scratch.candidates[i];
+                long key = (long) scratch.total[doc] << 32 | (Integer.MAX_VALUE - doc);
+                if (heapSize < wanted) {
+                    heap[heapSize] = key;
+                    siftUp(heap, heapSize++);
+                } else if (wanted > 0 && key > heap[0]) {
+                    heap[0] = key;
+                    siftDown(heap, heapSize);
+                }
+            }
+            Arrays.sort(heap, 0, heapSize);
+
+            List<Movie> result = new ArrayList<>(Math.max(0, heapSize - offset));
+            for (int i = heapSize - 1 - offset; i >= 0; i--) {
+                result.add(docs.get(Integer.MAX_VALUE - (int) heap[i]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByMovieId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Najlepszy wynik słowa zapytania dla każdego pasującego filmu (scratch.best), pasujące filmy trafiają
+    // do scratch.candidates. Po pierwszym słowie liczą się tylko filmy oznaczone poprzednią epoką,
+    // czyli pasujące do wszystkich wcześniejszych słów. Zwraca liczbę kandydatów.
+    private int scoreTerm(String term, Scratch scratch, int epoch, int previous) {
+        Map<String, Posting> matches = term.length() < MIN_PREFIX
+                ? tokens.subMap(term, true, term, true)
+                : tokens.subMap(term, true, term + Character.MAX_VALUE, false);
+
+        int candidates = 0;
+        int expansions = 0;
+        for (Map.Entry<String, Posting> match : matches.entrySet()) {
+            if (expansions++ == MAX_EXPANSIONS) {
+                break;
+            }
+            int multiplier = match.getKey().length() == term.length() ? 2 : 1;
+            Posting posting = match.getValue();
+            for (int i = 0; i < posting.size; i++) {
+                int doc = posting.docs[i];
+                int score = weightOf(posting.fields[i]) * multiplier;
+                int mark = scratch.mark[doc];
+                if (mark == epoch) {
+                    scratch.best[doc] = Math.max(scratch.best[doc], score);
+                } else if (previous < 0 || mark == previous) {
+                    scratch.mark[doc] = epoch;
+                    scratch.best[doc] = score;
+                    scratch.candidates[candidates++] = doc;
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        long key = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (key <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = key;
+    }
+
+    private static int weightOf(int fields) {
+        if ((fields & TITLE) != 0) {
+            return 8;
+        }
+        if ((fields & DIRECTOR) != 0) {
+            return 4;
+        }
+        return (fields & GENRE) != 0 ? 2 : 1;
+    }
+
+    private interface TokenConsumer {
+        void accept(String token, int field);
+    }
+
+    private static void forEachToken(Movie movie, TokenConsumer consumer) {
+        Set<String> fieldTokens = new LinkedHashSet<>();
+        tokenize(movie.getTitle(), fieldTokens);
+        fieldTokens.forEach(token -> consumer.accept(token, TITLE));
+        fieldTokens.clear();
+        tokenize(movie.getDirector(), fieldTokens);
+        fieldTokens.forEach(token -> consumer.accept(token, DIRECTOR));
+        fieldTokens.clear();
+        tokenize(movie.getGenre(), fieldTokens);
+        fieldTokens.forEach(token -> consumer.accept(token, GENRE));
+        fieldTokens.clear();
+        tokenize(movie.getLanguage(), fieldTokens);
+        fieldTokens.forEach(token -> consumer.accept(token, LANGUAGE));
+        if (movie.getReleaseYear() > 0) {
+            consumer.accept(Integer.toString(movie.getReleaseYear()), YEAR);
+        }
+    }
+
+    // Małe litery bez znaków diakrytycznych; ł nie rozkłada się w NFD, więc zamieniamy je osobno
+    static void tokenize(String text, Set<String> out) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'ł') {
+                c = 'l';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (token.length() > 0) {
+                out.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            out.add(token.toString());
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package server;
+
+import logging.Log;
+import logging.Logger;
+import metrics.ServerMetrics;
+import models.MessageType;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Stała pula wątków roboczych z osobną kolejką dla każdej klasy żądań. Wątek, który się zwolni,
+// wybiera klasę ważonym round-robinem (smooth weighted round-robin) spośród klas z oczekującymi
+// żądaniami i wolnym limitem współbieżności. Przeglądanie katalogu (BULK) nie może więc zająć
+// wszystkich wątków ani kolejki rezerwacji.
+//
+// Konfiguracja: -Dcinema.dispatch.threads=<wątki> (domyślnie 8),
+// -Dcinema.dispatch.queueCapacity=<żądań na klasę> (domyślnie 1024).
+public class PriorityDispatcher {
+    private static final Logger LOG = Log.getLogger(PriorityDispatcher.class);
+
+    public enum RequestClass {
+        TRANSACTIONAL(8),  // zmiany rezerwacji
+        INTERACTIVE(4),    // stan miejsc dla klienta w trakcie rezerwacji
+        BULK(1);           // przeglądanie katalogu
+
+        final int weight;
+
+        RequestClass(int weight) {
+            this.weight = weight;
+        }
+
+        public static RequestClass of(MessageType type) {
+            switch (type) {
+                case MAKE_RESERVATION:
+                case CANCEL_RESERVATION:
+                case HOLD_SEATS:
+                case CONFIRM_RESERVATION:
+                    return TRANSACTIONAL;
+                case GET_MOVIES:
+                case SEARCH_MOVIES:
+                case GET_SCREENINGS:
+                case GET_SCREENINGS_BY_DATE:
+                case GET_RESERVATIONS:
+                case GET_RESERVATIONS_BY_EMAIL:
+                case IMPORT_SCHEDULE:
+                case GET_STATS_REPORT:
+                    return BULK;
+                default:
+                    return INTERACTIVE;
+            }
+        }
+    }
+
+    private static final class Task {
+        final Runnable work;
+        final long enqueuedAt;
+
+        Task(Runnable work, long enqueuedAt) {
+            this.work = work;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private static final class ClassQueue {
+        final RequestClass requestClass;
+        final ArrayDeque<Task> tasks = new ArrayDeque<>();
+        final int capacity;
+        final int limit;
+        volatile int depth;
+        volatile int inFlight;
+        long currentWeight;
+
+        ClassQueue(RequestClass requestClass, int capacity, int limit) {
+            this.requestClass = requestClass;
+            this.capacity = capacity;
+            this.limit = limit;
+        }
+
+        boolean eligible() {
+            return !tasks.isEmpty() && inFlight < limit;
+        }
+    }
+
+    private static final double SERVICE_TIME_ALPHA = 0.05;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ClassQueue[] queues;
+    private final Thread[] workers;
+    private final ServerMetrics metrics;
+    private volatile boolean running = true;
+    private volatile int queued;                 // suma głębokości wszystkich kolejek
+    private volatile double averageServiceNanos; // średnia krocząca czasu obsługi żądania
+    private volatile double averageWaitNanos;    // średnia krocząca czasu spędzonego w kolejce
+
+    public PriorityDispatcher(int threads, int queueCapacity, ServerMetrics metrics) {
+        this.metrics = metrics;
+        RequestClass[] classes = RequestClass.values();
+        this.queues = new ClassQueue[classes.length];
+        for (RequestClass requestClass : classes) {
+            // Rezerwacje mogą zająć wszystkie wątki, pozostałe klasy tylko część
+            int limit;
+            switch (requestClass) {
+                case TRANSACTIONAL:
+                    limit = threads;
+                    break;
+                case INTERACTIVE:
+                    limit = Math.max(1, threads * 3 / 4);
+                    break;
+                default:
+                    limit = Math.max(1, threads / 4);
+            }
+            ClassQueue queue = new ClassQueue(requestClass, queueCapacity, limit);
+            queues[requestClass.ordinal()] = queue;
+
+            String prefix = "dispatch." + requestClass.name().toLowerCase();
+            metrics.registerGauge(prefix + ".depth", () -> queue.depth);
+            metrics.registerGauge(prefix + ".inFlight", () -> queue.inFlight);
+        }
+
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::workerLoop, "dispatch-" + i);
+            workers[i].setDaemon(true);
+        }
+    }
+
+    public static PriorityDispatcher fromSystemProperties(ServerMetrics metrics) {
+        return new PriorityDispatcher(Integer.getInteger("cinema.dispatch.threads", 8),
+                                      Integer.getInteger("cinema.dispatch.queueCapacity", 1024),
+                                      metrics);
+    }
+
+    public void start() {
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        lock.lock();
+        try {
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    // Liczba żądań czekających we wszystkich kolejkach
+    public int getQueuedCount() {
+        return queued;
+    }
+
+    // Szacowany czas, po jakim nowe żądanie trafi do wątku roboczego: z długości kolejki i średniego
+    // czasu obsługi, ale nie mniej niż faktycznie mierzony ostatnio czas w kolejce - gdy wątki
+    // konkurują o procesor, sam czas obsługi zaniża oczekiwanie
+    public long estimateWaitNanos() {
+        int depth = queued;
+        if (depth == 0) {
+            return 0;
+        }
+        return (long) Math.max(depth * averageServiceNanos / workers.length, averageWaitNanos);
+    }
+
+    // Zwraca false, gdy kolejka klasy jest pełna - żądanie jest odrzucane, klient ponowi je po timeoucie
+    public boolean submit(RequestClass requestClass, Runnable work) {
+        ClassQueue queue = queues[requestClass.ordinal()];
+        lock.lock();
+        try {
+            if (queue.tasks.size() >= queue.capacity) {
+                metrics.increment("dispatch." + requestClass.name().toLowerCase() + ".rejected");
+                return false;
+            }
+            queue.tasks.addLast(new Task(work, System.nanoTime()));
+            queue.depth = queue.tasks.size();
+            queued++;
+            available.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void workerLoop() {
+        while (running) {
+            ClassQueue queue;
+            Task task;
+            lock.lock();
+            try {
+                while ((queue = next()) == null) {
+                    if (!running) {
+                        return;
+                    }
+                    available.awaitUninterruptibly();
+                }
+                task = queue.tasks.pollFirst();
+                queue.depth = queue.tasks.size();
+                queued--;
+                averageWaitNanos += SERVICE_TIME_ALPHA * (System.nanoTime() - task.enqueuedAt - averageWaitNanos);
+                queue.inFlight++;
+            } finally {
+                lock.unlock();
+            }
+
+            long started = System.nanoTime();
+            metrics.recordQueueWait(queue.requestClass.name().toLowerCase(), started - task.enqueuedAt);
+            try {
+                task.work.run();
+            } catch (RuntimeException e) {
+                LOG.error("Request handler failed", e);
+            } finally {
+                long serviceNanos = System.nanoTime() - started;
+                lock.lock();
+                try {
+                    queue.inFlight--;
+                    averageServiceNanos += SERVICE_TIME_ALPHA * (serviceNanos - averageServiceNanos);
+                    // Zwolniony limit klasy może odblokować żądanie, na które czeka inny wątek
+                    available.signal();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    // Smooth weighted round-robin: każda uprawniona klasa dostaje swoją wagę, wybierana jest ta
+    // z największym licznikiem, któremu odejmuje się sumę wag. Udziały są proporcjonalne do wag
+    // i rozłożone równomiernie. Wywoływane pod blokadą.
+    private ClassQueue next() {
+        ClassQueue best = null;
+        int totalWeight = 0;
+        for (ClassQueue queue : queues) {
+            if (!queue.eligible()) {
+                continue;
+            }
+            queue.currentWeight += queue.requestClass.weight;
+            totalWeight += queue.requestClass.weight;
+            if (best == null || queue.currentWeight > best.currentWeight) {
+                best = queue;
+            }
+        }
+        if (best != null) {
+            best.currentWeight -= totalWeight;
+        }
+        return best;
+    }
+}
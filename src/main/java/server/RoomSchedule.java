@@ -0,0 +1,105 @@
+package server;
+
+import models.Screening;
+import models.TimeSlot;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Plan zajętości sal: każdy seans zajmuje salę w przedziale [początek, początek + czas filmu + sprzątanie).
+//
+// Dla każdej sali przedziały leżą w drzewie uporządkowanym po początku (klucz jak w ScreeningTimeIndex:
+// (sekunda << 31) | screeningId), a sala pamięta najdłuższy przedział. Przedział [s, e) może kolidować
+// tylko z przedziałami zaczynającymi się w (s - najdłuższy, e) - to odpowiednik zapytania drzewa
+// przedziałów: O(log n) na zejście w drzewie plus kilka seansów z tego okna, niezależnie od długości planu.
+public class RoomSchedule {
+    private static final class Timeline {
+        final TreeMap<Long, Screening> byStart = new TreeMap<>();
+        long maxLengthSeconds;
+    }
+
+    private final long cleaningSeconds;
+    private final Map<Integer, Timeline> timelines = new ConcurrentHashMap<>();
+
+    public RoomSchedule(int cleaningMinutes) {
+        this.cleaningSeconds = cleaningMinutes * 60L;
+    }
+
+    // Seans zajmujący salę w czasie [start, start + minutes + sprzątanie) albo null, gdy sala jest wolna
+    public Screening findConflict(int roomId, LocalDateTime start, int minutes) {
+        Timeline timeline = timelines.get(roomId);
+        if (timeline == null) {
+            return null;
+        }
+        long from = secondsOf(start);
+        long to = from + minutes * 60L + cleaningSeconds;
+        synchronized (timeline) {
+            for (Screening other : timeline.byStart.subMap(keyOf(from - timeline.maxLengthSeconds, 0), true,
+                                                          keyOf(to, 0), false).values()) {
+                if (endOf(other) > from) {
+                    return other;
+                }
+            }
+        }
+        return null;
+    }
+
+    public void add(Screening screening) {
+        Timeline timeline = timelines.computeIfAbsent(screening.getRoom().getRoomId(), k -> new Timeline());
+        long start = secondsOf(screening.getScreeningTime());
+        synchronized (timeline) {
+            timeline.byStart.put(keyOf(start, screening.getScreeningId()), screening);
+            timeline.maxLengthSeconds = Math.max(timeline.maxLengthSeconds, endOf(screening) - start);
+        }
+    }
+
+    // Wolne okna sali w danym dniu, w których mieści się seans trwający minutes minut (ze sprzątaniem)
+    public List<TimeSlot> freeSlots(int roomId, LocalDate day, int minutes) {
+        long dayStart = secondsOf(day.atStartOfDay());
+        long dayEnd = secondsOf(day.plusDays(1).atStartOfDay());
+        long needed = minutes * 60L + cleaningSeconds;
+        List<TimeSlot> slots = new ArrayList<>();
+
+        long free = dayStart; // początek bieżącego wolnego okna
+        Timeline timeline = timelines.get(roomId);
+        if (timeline != null) {
+            synchronized (timeline) {
+                for (Screening screening : timeline.byStart.subMap(keyOf(dayStart - timeline.maxLengthSeconds, 0), true,
+                                                                   keyOf(dayEnd, 0), false).values()) {
+                    long start = secondsOf(screening.getScreeningTime());
+                    if (start - free >= needed) {
+                        slots.add(slotOf(free, start));
+                    }
+                    free = Math.max(free, endOf(screening));
+                }
+            }
+        }
+        if (dayEnd - free >= needed) {
+            slots.add(slotOf(free, dayEnd));
+        }
+        return slots;
+    }
+
+    private long endOf(Screening screening) {
+        return secondsOf(screening.getScreeningTime()) + screening.getMovie().getDuration() * 60L + cleaningSeconds;
+    }
+
+    private static TimeSlot slotOf(long from, long to) {
+        return new TimeSlot(LocalDateTime.ofEpochSecond(from, 0, ZoneOffset.UTC),
+                            LocalDateTime.ofEpochSecond(to, 0, ZoneOffset.UTC));
+    }
+
+    private static long secondsOf(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long keyOf(long seconds, int screeningId) {
+        return seconds << 31 | screeningId;
+    }
+}
@@ -0,0 +1,131 @@
+package server;
+
+import models.Reservation;
+import models.Screening;
+import models.StatsDimension;
+import models.StatsRow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bieżące sumy sprzedaży zasilane zdarzeniami potwierdzenia i anulowania rezerwacji - raport kosztuje
+// O(liczba grup) zamiast przeglądania tabeli reservations, które konkurowałoby z rezerwacjami.
+//
+// Każde zdarzenie dopisuje do czterech grup (seans, film, sala, godzina rozpoczęcia) i do sumy całkowitej.
+// Liczniki to LongAdder: aktualizacja nie bierze blokady, a równoległe zapisy trafiają w osobne komórki.
+// Raport czyta liczniki bez zatrzymywania zapisów, więc wiersze mogą minimalnie różnić się momentem odczytu.
+public class SalesAnalytics {
+    private static final class Counters {
+        final LongAdder reservations = new LongAdder();
+        final LongAdder tickets = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+        final LongAdder capacity = new LongAdder();
+
+        void add(long reservationCount, long ticketCount, long cents) {
+            reservations.add(reservationCount);
+            tickets.add(ticketCount);
+            revenueCents.add(cents);
+        }
+
+        StatsRow row(int key) {
+            return new StatsRow(key, reservations.sum(), tickets.sum(), revenueCents.sum(), capacity.sum());
+        }
+    }
+
+    private final Counters total = new Counters();
+    private final Map<Integer, Counters> byScreening = new ConcurrentHashMap<>();
+    private final Map<Integer, Counters> byMovie = new ConcurrentHashMap<>();
+    private final Map<Integer, Counters> byRoom = new ConcurrentHashMap<>();
+    private final Counters[] byHour = new Counters[24];
+
+    public SalesAnalytics() {
+        for (int hour = 0; hour < byHour.length; hour++) {
+            byHour[hour] = new Counters();
+        }
+    }
+
+    // Nowy seans powiększa pojemność swoich grup - obłożenie to bilety / suma miejsc w seansach grupy
+    public void addScreening(Screening screening) {
+        long capacity = screening.getCapacity();
+        for (Counters counters : groupsOf(screening)) {
+            counters.capacity.add(capacity);
+        }
+    }
+
+    public void confirmed(Reservation reservation) {
+        record(reservation, 1);
+    }
+
+    public void cancelled(Reservation reservation) {
+        record(reservation, -1);
+    }
+
+    private void record(Reservation reservation, int sign) {
+        long tickets = sign * (long) reservation.getReservedSeats().size();
+        long cents = sign * Math.round(reservation.getTotalPrice() * 100);
+        for (Counters counters : groupsOf(reservation.getScreening())) {
+            counters.add(sign, tickets, cents);
+        }
+    }
+
+    private Counters[] groupsOf(Screening screening) {
+        return new Counters[] {
+            total,
+            countersOf(byScreening, screening.getScreeningId()),
+            countersOf(byMovie, screening.getMovie().getMovieId()),
+            countersOf(byRoom, screening.getRoom().getRoomId()),
+            byHour[screening.getScreeningTime().getHour()]
+        };
+    }
+
+    // Zwykły odczyt mapy bez blokady; computeIfAbsent tylko przy pierwszym zdarzeniu grupy
+    private static Counters countersOf(Map<Integer, Counters> groups, int key) {
+        Counters counters = groups.get(key);
+        return counters != null ? counters : groups.computeIfAbsent(key, k -> new Counters());
+    }
+
+    // Wiersze wymiaru w kolejności klucza, pozycje [offset, offset + limit)
+    public List<StatsRow> report(StatsDimension dimension, int offset, int limit) {
+        List<StatsRow> rows = new ArrayList<>();
+        switch (dimension) {
+            case TOTAL:
+                if (offset == 0 && limit > 0) {
+                    rows.add(total.row(0));
+                }
+                return rows;
+            case HOUR_OF_DAY:
+                for (int hour = offset; hour < byHour.length && rows.size() < limit; hour++) {
+                    rows.add(byHour[hour].row(hour));
+                }
+                return rows;
+            default:
+                Map<Integer, Counters> groups = dimension == StatsDimension.SCREENING ? byScreening
+                        : dimension == StatsDimension.MOVIE ? byMovie : byRoom;
+                int[] keys = groups.keySet().stream().mapToInt(Integer::intValue).toArray();
+                Arrays.sort(keys);
+                for (int i = offset; i < keys.length && rows.size() < limit; i++) {
+                    rows.add(groups.get(keys[i]).row(keys[i]));
+                }
+                return rows;
+        }
+    }
+
+    public int groupCount(StatsDimension dimension) {
+        switch (dimension) {
+            case TOTAL:
+                return 1;
+            case HOUR_OF_DAY:
+                return byHour.length;
+            case SCREENING:
+                return byScreening.size();
+            case MOVIE:
+                return byMovie.size();
+            default:
+                return byRoom.size();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package server;
+
+import models.Screening;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Seanse uporządkowane według godziny rozpoczęcia - zapytania "dziś wieczorem" / "najbliższe 3 godziny"
+// przeglądają tylko swój wycinek repertuaru, a nie cały rok.
+//
+// Klucz to (sekunda rozpoczęcia << 31) | screeningId: seanse o tej samej godzinie nie nadpisują się,
+// a granice przedziału to po prostu klucze z identyfikatorem 0. Czas lokalny jest zamieniany na sekundy
+// jak w UTC - to tylko monotoniczne odwzorowanie, strefa nie ma znaczenia. Zakres: lata 1970-2106
+// (sekunda musi zmieścić się w 32 bitach, inaczej klucz przepełnia się na ujemny).
+public class ScreeningTimeIndex {
+    public static final LocalDateTime MIN_TIME = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+    public static final LocalDateTime MAX_TIME = LocalDateTime.ofEpochSecond((1L << 32) - 1, 0, ZoneOffset.UTC);
+
+    private final ConcurrentSkipListMap<Long, Screening> byTime = new ConcurrentSkipListMap<>();
+
+    public ScreeningTimeIndex(Collection<Screening> screenings) {
+        for (Screening screening : screenings) {
+            add(screening);
+        }
+    }
+
+    public void add(Screening screening) {
+        byTime.put(keyOf(screening.getScreeningTime(), screening.getScreeningId()), screening);
+    }
+
+    public void remove(Screening screening) {
+        byTime.remove(keyOf(screening.getScreeningTime(), screening.getScreeningId()), screening);
+    }
+
+    // Seanse z przedziału [from, to) w kolejności godzin, z pominięciem pierwszych offset
+    public List<Screening> range(LocalDateTime from, LocalDateTime to, int offset, int limit) {
+        List<Screening> result = new ArrayList<>(Math.min(limit, 64));
+        if (!from.isBefore(to)) {
+            return result;
+        }
+        int skipped = 0;
+        for (Screening screening : byTime.subMap(keyOf(from, 0), keyOf(to, 0)).values()) {
+            if (skipped++ < offset) {
+                continue;
+            }
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(screening);
+        }
+        return result;
+    }
+
+    // Czas przycięty do zakresu kluczy indeksu
+    public static LocalDateTime clamp(LocalDateTime time) {
+        return time.isBefore(MIN_TIME) ? MIN_TIME : time.isAfter(MAX_TIME) ? MAX_TIME : time;
+    }
+
+    public static boolean isSupported(LocalDateTime time) {
+        return !time.isBefore(MIN_TIME) && !time.isAfter(MAX_TIME);
+    }
+
+    public int size() {
+        return byTime.size();
+    }
+
+    private static long keyOf(LocalDateTime time, int screeningId) {
+        return time.toEpochSecond(ZoneOffset.UTC) << 31 | screeningId;
+    }
+}
@@ -0,0 +1,211 @@
+package server;
+
+import metrics.ServerMetrics;
+import server.PriorityDispatcher.RequestClass;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Limit żądań na źródło (adres IP + port) - jeden kiosk czy skrypt nie może zalać serwera.
+//
+// Każde źródło ma kubełek na wszystkie pakiety, sprawdzany przed deserializacją, oraz kubełek
+// na każdą klasę żądań, sprawdzany zaraz po dekodowaniu, zanim żądanie trafi do kolejki.
+// Kubełek to GCRA: zamiast licznika żetonów i czasu uzupełnienia przechowywany jest jeden long -
+// teoretyczny czas nadejścia następnego żądania - aktualizowany jednym CAS-em, bez blokad.
+//
+// Mapa źródeł jest ograniczona; co idleSeconds/2 wątek sprzątający usuwa źródła bezczynne
+// dłużej niż idleSeconds (ich kubełki i tak są już pełne). Gdy mapa jest pełna, nowe źródła
+// dzielą jeden wspólny kubełek przepełnienia.
+//
+// Odrzucony pakiet dostaje odpowiedź BUSY z czasem do następnego żetonu, ale najwyżej jedną
+// na ten czas - kolejne pakiety od tego samego źródła są po cichu gubione.
+//
+// Konfiguracja (żądań na sekundę na źródło, 0 wyłącza dany kubełek):
+// -Dcinema.rateLimit.packets (domyślnie 200), -Dcinema.rateLimit.transactional (domyślnie 20),
+// -Dcinema.rateLimit.interactive (domyślnie 50), -Dcinema.rateLimit.bulk (domyślnie 20),
+// -Dcinema.rateLimit.burstSeconds=<s> (pojemność kubełka w sekundach limitu, domyślnie 1),
+// -Dcinema.rateLimit.maxSources (domyślnie 200000), -Dcinema.rateLimit.idleSeconds (domyślnie 60).
+public class SourceRateLimiter {
+    public static final class Source {
+        final AtomicLongArray tats = new AtomicLongArray(BUCKETS);
+        volatile long lastSeen;
+        volatile long busyUntil;
+    }
+
+    // Kubełek 0 - wszystkie pakiety, kolejne - klasy żądań w kolejności RequestClass
+    private static final int PACKETS = 0;
+    private static final int BUCKETS = 1 + RequestClass.values().length;
+
+    private final long[] intervals = new long[BUCKETS];   // odstęp między żądaniami w ns, 0 = bez limitu
+    private final long[] tolerances = new long[BUCKETS];  // dopuszczalny zapas ponad odstęp (wielkość serii)
+    private final String[] rejectedCounters = new String[BUCKETS];
+    private final int maxSources;
+    private final long idleNanos;
+    private final ServerMetrics metrics;
+    private final long origin = System.nanoTime();
+    private final Map<Long, Source> sources = new ConcurrentHashMap<>();
+    private final Source overflow = new Source();
+    private ScheduledExecutorService sweeper;
+
+    public SourceRateLimiter(double packetsPerSecond, double[] classRates, double burstSeconds,
+                             int maxSources, long idleSeconds, ServerMetrics metrics) {
+        this.maxSources = maxSources;
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        this.metrics = metrics;
+
+        configure(PACKETS, packetsPerSecond, burstSeconds, "packets");
+        for (RequestClass requestClass : RequestClass.values()) {
+            configure(1 + requestClass.ordinal(), classRates[requestClass.ordinal()], burstSeconds,
+                      requestClass.name().toLowerCase());
+        }
+
+        metrics.registerGauge("ratelimit.sources", sources::size);
+    }
+
+    // null, gdy wszystkie limity są wyłączone
+    public static SourceRateLimiter fromSystemProperties(ServerMetrics metrics) {
+        double packets = doubleProperty("cinema.rateLimit.packets", 200);
+        double[] classRates = new double[RequestClass.values().length];
+        classRates[RequestClass.TRANSACTIONAL.ordinal()] = doubleProperty("cinema.rateLimit.transactional", 20);
+        classRates[RequestClass.INTERACTIVE.ordinal()] = doubleProperty("cinema.rateLimit.interactive", 50);
+        classRates[RequestClass.BULK.ordinal()] = doubleProperty("cinema.rateLimit.bulk", 20);
+
+        boolean enabled = packets > 0;
+        for (double rate : classRates) {
+            enabled |= rate > 0;
+        }
+        if (!enabled) {
+            return null;
+        }
+        return new SourceRateLimiter(packets, classRates,
+                                     doubleProperty("cinema.rateLimit.burstSeconds", 1),
+                                     Integer.getInteger("cinema.rateLimit.maxSources", 200_000),
+                                     Long.getLong("cinema.rateLimit.idleSeconds", 60L),
+                                     metrics);
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    private void configure(int bucket, double ratePerSecond, double burstSeconds, String name) {
+        if (ratePerSecond <= 0) {
+            return;
+        }
+        long interval = Math.max(1, (long) (1e9 / ratePerSecond));
+        intervals[bucket] = interval;
+        // Pełny kubełek przepuszcza burstSeconds * rate żądań naraz (co najmniej jedno)
+        tolerances[bucket] = Math.max(0, (long) (burstSeconds * 1e9) - interval);
+        rejectedCounters[bucket] = "ratelimit.rejected." + name;
+    }
+
+    public void start() {
+        long periodMillis = Math.max(1000, TimeUnit.NANOSECONDS.toMillis(idleNanos) / 2);
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::evictIdle, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.shutdown();
+        }
+    }
+
+    public Source sourceOf(InetAddress address, int port) {
+        long now = now();
+        Long key = keyOf(address, port);
+        Source source = sources.get(key);
+        if (source == null) {
+            if (sources.size() >= maxSources) {
+                metrics.increment("ratelimit.overflow");
+                source = overflow;
+            } else {
+                source = sources.computeIfAbsent(key, k -> new Source());
+            }
+        }
+        source.lastSeen = now;
+        return source;
+    }
+
+    // 0 - pakiet przyjęty; > 0 - odrzucony, odpowiedz BUSY z tym czasem w ms; < 0 - odrzucony bez odpowiedzi
+    public long acquirePacket(Source source) {
+        return acquire(source, PACKETS);
+    }
+
+    public long acquire(Source source, RequestClass requestClass) {
+        return acquire(source, 1 + requestClass.ordinal());
+    }
+
+    private long acquire(Source source, int bucket) {
+        long interval = intervals[bucket];
+        if (interval == 0) {
+            return 0;
+        }
+        long now = now();
+        while (true) {
+            long tat = source.tats.get(bucket);
+            long start = Math.max(tat, now);
+            long waitNanos = start - tolerances[bucket] - now;
+            if (waitNanos > 0) {
+                return reject(source, bucket, waitNanos, now);
+            }
+            if (source.tats.compareAndSet(bucket, tat, start + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    private long reject(Source source, int bucket, long waitNanos, long now) {
+        metrics.increment(rejectedCounters[bucket]);
+        if (now < source.busyUntil) {
+            return -1;
+        }
+        source.busyUntil = now + waitNanos;
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+    }
+
+    private void evictIdle() {
+        long idleBefore = now() - idleNanos;
+        int evicted = 0;
+        Iterator<Map.Entry<Long, Source>> iterator = sources.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue().lastSeen < idleBefore) {
+                iterator.remove();
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            metrics.increment("ratelimit.evicted", evicted);
+        }
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+
+    // IPv4: adres (hashCode Inet4Address to właśnie adres) i port w dolnych 48 bitach.
+    // IPv6: 128 bitów adresu zwinięte do 47 z ustawionym najstarszym bitem - kolizja łączy
+    // najwyżej limity dwóch źródeł.
+    static long keyOf(InetAddress address, int port) {
+        if (address instanceof Inet4Address) {
+            return ((address.hashCode() & 0xFFFFFFFFL) << 16) | port;
+        }
+        long hash = 1125899906842597L;
+        for (byte b : address.getAddress()) {
+            hash = 31 * hash + b;
+        }
+        return Long.MIN_VALUE | ((hash & 0x7FFF_FFFF_FFFFL) << 16) | port;
+    }
+}
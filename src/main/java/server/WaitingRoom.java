@@ -0,0 +1,194 @@
+package server;
+
+import models.AdmissionTicket;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+import java.util.function.LongSupplier;
+
+// Poczekalnia dla popularnych seansów. Każdy klient dostaje kolejną pozycję w kolejce seansu
+// i podpisany token; żądania rezerwacyjne przechodzą tylko z biletem, którego pozycja jest
+// poniżej "horyzontu wpuszczania". Horyzont przesuwa się o admissionsPerSecond na sekundę,
+// liczony leniwie przy zapytaniu - bez wątku w tle.
+//
+// Pamięć nie zależy od liczby oczekujących: na seans przypada licznik pozycji i horyzont,
+// a bilety nie są przechowywane. Kolejność FIFO wynika z rosnących pozycji. Kolejki powstają tylko
+// dla seansów, które serwer uznaje za otwarte (istnieją i jeszcze się nie skończyły), a kolejki
+// zakończonych seansów są usuwane przy zakładaniu nowych, nie częściej niż co SWEEP_INTERVAL_MILLIS.
+//
+// Ważność biletu (ticketTtlSeconds) liczy się od chwili, w której horyzont mija jego pozycję, a nie od
+// wydania - inaczej w kolejce dłuższej niż rate * TTL bilety wygasałyby przed swoją kolejką i wracały na koniec.
+// Bilet czekający w kolejce jest przy każdym sprawdzeniu podpisywany na nowo, z tą samą pozycją.
+//
+// Konfiguracja: -Dcinema.waitingRoom.rate=<wejść/s na seans> (0 = wyłączona, domyślnie),
+// -Dcinema.waitingRoom.burst=<pula wejść od razu>, -Dcinema.waitingRoom.screenings=1,2,3 (domyślnie wszystkie),
+// -Dcinema.waitingRoom.ticketTtlSeconds=<ważność biletu>.
+public class WaitingRoom {
+    private static final long MIN_RETRY_MILLIS = 250;
+    private static final long MAX_RETRY_MILLIS = 30_000;
+    private static final long SWEEP_INTERVAL_MILLIS = 60_000;
+
+    private final class ScreeningQueue {
+        final AtomicLong issued = new AtomicLong();
+        double horizon = burst;
+        long lastAdvance = clock.getAsLong();
+
+        // Pozycje poniżej zwracanej wartości są wpuszczone. Niewykorzystany przyrost nie kumuluje się
+        // ponad pulę burst, więc po przerwie nie wchodzi naraz cały tłum.
+        synchronized double advance(long now) {
+            double next = horizon + (now - lastAdvance) * admissionsPerSecond / 1000.0;
+            horizon = Math.max(horizon, Math.min(next, issued.get() + burst));
+            lastAdvance = now;
+            return horizon;
+        }
+    }
+
+    private final double admissionsPerSecond;
+    private final int burst;
+    private final long ticketTtlMillis;
+    private final Set<Integer> screenings; // null = wszystkie seanse
+    private final IntPredicate open;       // seans istnieje i jeszcze się nie skończył
+    private final LongSupplier clock;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final Map<Integer, ScreeningQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep;
+
+    public WaitingRoom(double admissionsPerSecond, int burst, long ticketTtlMillis, Set<Integer> screenings,
+                       IntPredicate open) {
+        this(admissionsPerSecond, burst, ticketTtlMillis, screenings, open, System::currentTimeMillis);
+    }
+
+    // Zegar podawany w testach
+    WaitingRoom(double admissionsPerSecond, int burst, long ticketTtlMillis, Set<Integer> screenings,
+                IntPredicate open, LongSupplier clock) {
+        this.admissionsPerSecond = admissionsPerSecond;
+        this.burst = burst;
+        this.ticketTtlMillis = ticketTtlMillis;
+        this.screenings = screenings;
+        this.open = open;
+        this.clock = clock;
+        this.lastSweep = new AtomicLong(clock.getAsLong());
+
+        // Klucz losowany przy starcie - bilety wydane przed restartem serwera tracą ważność
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    // Zwraca null, gdy poczekalnia jest wyłączona
+    public static WaitingRoom fromSystemProperties(IntPredicate open) {
+        double rate = Double.parseDouble(System.getProperty("cinema.waitingRoom.rate", "0"));
+        if (rate <= 0) {
+            return null;
+        }
+        Set<Integer> screenings = null;
+        String list = System.getProperty("cinema.waitingRoom.screenings", "");
+        if (!list.isBlank()) {
+            screenings = new HashSet<>();
+            for (String id : list.split(",")) {
+                screenings.add(Integer.parseInt(id.trim()));
+            }
+        }
+        return new WaitingRoom(rate,
+                Integer.getInteger("cinema.waitingRoom.burst", 10),
+                Long.getLong("cinema.waitingRoom.ticketTtlSeconds", 900L) * 1000,
+                screenings, open);
+    }
+
+    // Identyfikator pochodzi od klienta - seans spoza repertuaru nie może założyć kolejki
+    public boolean covers(int screeningId) {
+        return (screenings == null || screenings.contains(screeningId)) && open.test(screeningId);
+    }
+
+    // Nowa pozycja na końcu kolejki seansu; wywołujący sprawdza wcześniej covers()
+    public AdmissionTicket join(int screeningId) {
+        ScreeningQueue queue = queues.get(screeningId);
+        if (queue == null) {
+            evictClosed();
+            queue = queues.computeIfAbsent(screeningId, id -> new ScreeningQueue());
+        }
+        return ticket(screeningId, queue, queue.issued.getAndIncrement(), clock.getAsLong());
+    }
+
+    // Null, gdy bilet uprawnia do wejścia. W przeciwnym razie bilet, z którym klient ma ponowić żądanie
+    // po getRetryAfterMillis() - z tą samą pozycją, jeśli jest ważny, albo nowy na końcu kolejki.
+    public AdmissionTicket check(int screeningId, AdmissionTicket ticket) {
+        long now = clock.getAsLong();
+        if (!isValid(screeningId, ticket, now)) {
+            return join(screeningId);
+        }
+
+        ScreeningQueue queue = queues.get(screeningId);
+        if (queue == null) {
+            return join(screeningId);
+        }
+        if (ticket.getPosition() < queue.advance(now)) {
+            return null;
+        }
+        return ticket(screeningId, queue, ticket.getPosition(), now);
+    }
+
+    public int getQueueCount() {
+        return queues.size();
+    }
+
+    // Usuwa kolejki seansów, które się skończyły; przegląd nie częściej niż co SWEEP_INTERVAL_MILLIS
+    private void evictClosed() {
+        long now = clock.getAsLong();
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_MILLIS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        queues.keySet().removeIf(screeningId -> !open.test(screeningId));
+    }
+
+    private boolean isValid(int screeningId, AdmissionTicket ticket, long now) {
+        return ticket != null
+                && ticket.getScreeningId() == screeningId
+                && now - ticket.getAdmitAt() < ticketTtlMillis
+                && ticket.getToken() == sign(screeningId, ticket.getPosition(), ticket.getIssuedAt(), ticket.getAdmitAt());
+    }
+
+    // Horyzont rośnie dokładnie o admissionsPerSecond na sekundę, dopóki nie dojdzie do issued + burst,
+    // a to jest zawsze powyżej wydanej pozycji - więc chwilę wpuszczenia da się wyliczyć z góry
+    private AdmissionTicket ticket(int screeningId, ScreeningQueue queue, long position, long now) {
+        double ahead = position - queue.advance(now) + 1;
+        long admitAt = now + (long) Math.ceil(Math.max(0, ahead - 1) * 1000.0 / admissionsPerSecond);
+        AdmissionTicket ticket = new AdmissionTicket(screeningId, position, now, admitAt,
+                sign(screeningId, position, now, admitAt));
+        ticket.setRetryAfterMillis(retryAfter(ahead));
+        return ticket;
+    }
+
+    private long retryAfter(double ahead) {
+        if (ahead <= 0) {
+            return 0; // już wpuszczony - klient ponawia od razu, z biletem
+        }
+        long millis = (long) (ahead * 1000.0 / admissionsPerSecond);
+        return Math.max(MIN_RETRY_MILLIS, Math.min(MAX_RETRY_MILLIS, millis));
+    }
+
+    private long sign(int screeningId, long position, long issuedAt, long admitAt) {
+        ByteBuffer data = ByteBuffer.allocate(28).putInt(screeningId).putLong(position).putLong(issuedAt).putLong(admitAt);
+        return ByteBuffer.wrap(macs.get().doFinal(data.array())).getLong();
+    }
+}
@@ -0,0 +1,505 @@
+package tools;
+
+import metrics.Histogram;
+import models.*;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Generator obciążenia w pętli zamkniętej, symulujący start sprzedaży biletów na popularny seans.
+// Każdy wirtualny użytkownik wykonuje scenariusz: GET_MOVIES -> GET_SCREENINGS -> GET_SEATS ->
+// MAKE_RESERVATION -> (czasem) CANCEL_RESERVATION, z losowym czasem namysłu między krokami.
+//
+// java -cp target/classes tools.LoadGenerator --users=200 --duration=60 --hotspot=1 --loss=0.02
+//
+// Opcje: --host, --port, --users, --duration (s), --think (ms, średni czas namysłu), --party (miejsc
+// na rezerwację), --cancel (prawdopodobieństwo anulowania), --hotspot (id seansu, na który idą wszyscy),
+// --loss (odsetek gubionych pakietów, wymusza pośrednika LossyProxy), --timeout (ms),
+// --browsers (dodatkowe wątki zasypujące serwer GET_MOVIES/GET_SCREENINGS bez przerw),
+// --best=true (serwer wybiera i blokuje miejsca przez FIND_BEST_SEATS, klient potwierdza CONFIRM_RESERVATION).
+public class LoadGenerator {
+    private static final int BUFFER_SIZE = 65507;
+    private static final int SCREENINGS_PAGE_SIZE = 100;
+
+    private final InetAddress serverAddress;
+    private final int serverPort;
+    private final int users;
+    private final long durationMillis;
+    private final long thinkMillis;
+    private final int partySize;
+    private final double cancelRate;
+    private final int hotspotScreeningId;
+    private final int timeoutMillis;
+    private final boolean bestSeats;
+    private final int browsers;
+
+    private final Map<MessageType, Histogram> latency = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bookingAttempts = new LongAdder();
+    private final LongAdder bookings = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder soldOut = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+    private final LongAdder expiredHolds = new LongAdder();
+    private final LongAdder doubleBookings = new LongAdder();
+
+    private final LongAdder queuedResponses = new LongAdder();
+    private final LongAdder busyResponses = new LongAdder();
+    // Bilet z poczekalni - każdy wirtualny użytkownik ma własny wątek
+    private final ThreadLocal<AdmissionTicket> admissionTicket = new ThreadLocal<>();
+    private long counterMismatches; // ustawiane przy weryfikacji po zakończeniu testu
+
+    // Miejsca potwierdzone przez serwer: "seans:rząd:miejsce" -> id rezerwacji
+    private final Map<String, String> bookedSeats = new ConcurrentHashMap<>();
+
+    public LoadGenerator(InetAddress serverAddress, int serverPort, Map<String, String> options) {
+        this.serverAddress = serverAddress;
+        this.serverPort = serverPort;
+        this.users = Integer.parseInt(options.getOrDefault("users", "50"));
+        this.durationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("duration", "30")));
+        this.thinkMillis = Long.parseLong(options.getOrDefault("think", "200"));
+        this.partySize = Integer.parseInt(options.getOrDefault("party", "2"));
+        this.cancelRate = Double.parseDouble(options.getOrDefault("cancel", "0.1"));
+        this.hotspotScreeningId = Integer.parseInt(options.getOrDefault("hotspot", "0"));
+        this.timeoutMillis = Integer.parseInt(options.getOrDefault("timeout", "2000"));
+        this.bestSeats = Boolean.parseBoolean(options.getOrDefault("best", "false"));
+        this.browsers = Integer.parseInt(options.getOrDefault("browsers", "0"));
+    }
+
+    public void run() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + durationMillis;
+        long started = System.nanoTime();
+
+        List<Thread> threads = new ArrayList<>(users + browsers);
+        for (int i = 0; i < users; i++) {
+            int userId = i;
+            Thread thread = new Thread(() -> runUser(userId, deadline), "vu-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (int i = 0; i < browsers; i++) {
+            Thread thread = new Thread(() -> runBrowser(deadline), "browser-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        long missing = verifyAgainstServer();
+        printReport(elapsedSeconds, missing);
+    }
+
+    private void runUser(int userId, long deadline) {
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setSoTimeout(timeoutMillis);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            while (System.currentTimeMillis() < deadline) {
+                // Przeglądanie repertuaru
+                if (send(socket, new Message(MessageType.GET_MOVIES, null)) == null) {
+                    continue;
+                }
+                think(random);
+
+                List<ScreeningSummary> screenings = fetchScreenings(socket);
+                if (screenings == null) {
+                    continue;
+                }
+                ScreeningSummary screening = pickScreening(screenings, random);
+                if (screening == null) {
+                    continue;
+                }
+                think(random);
+
+                Reservation confirmed;
+                if (bestSeats) {
+                    // Serwer sam wybiera i rezerwuje miejsca
+                    bookingAttempts.increment();
+                    Message bookingResponse = send(socket, new Message(MessageType.FIND_BEST_SEATS,
+                            new BestSeatsRequest(screening.getScreeningId(), partySize,
+                                    "Load User " + userId, "load" + userId + "@example.com", "000000000")));
+                    if (bookingResponse == null) {
+                        continue;
+                    }
+                    if (!bookingResponse.isSuccess()) {
+                        soldOut.increment();
+                        think(random);
+                        continue;
+                    }
+
+                    // Miejsca są zablokowane na czas płatności; potem potwierdzenie
+                    Reservation held = (Reservation) bookingResponse.getPayload();
+                    think(random);
+                    Message confirmResponse = send(socket,
+                            new Message(MessageType.CONFIRM_RESERVATION, held.getReservationId()));
+                    if (confirmResponse == null) {
+                        continue;
+                    }
+                    if (!confirmResponse.isSuccess()) {
+                        expiredHolds.increment();
+                        continue;
+                    }
+                    confirmed = (Reservation) confirmResponse.getPayload();
+                } else {
+                    confirmed = browseAndBook(socket, userId, screening, random);
+                    if (confirmed == null) {
+                        continue;
+                    }
+                }
+
+                bookings.increment();
+                recordBooking(screening.getScreeningId(), confirmed);
+                think(random);
+
+                // Część użytkowników rezygnuje
+                if (random.nextDouble() < cancelRate) {
+                    Message cancelResponse = send(socket,
+                            new Message(MessageType.CANCEL_RESERVATION, confirmed.getReservationId()));
+                    if (cancelResponse != null && cancelResponse.isSuccess()) {
+                        cancellations.increment();
+                        releaseBooking(screening.getScreeningId(), confirmed);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Virtual user " + userId + " failed: " + e.getMessage());
+        }
+    }
+
+    // Fala przeglądania katalogu bez czasu namysłu - tło dla pomiaru opóźnień rezerwacji
+    private void runBrowser(long deadline) {
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setSoTimeout(timeoutMillis);
+            while (System.currentTimeMillis() < deadline) {
+                send(socket, new Message(MessageType.GET_MOVIES, null));
+                send(socket, new Message(MessageType.GET_SCREENINGS, null));
+            }
+        } catch (IOException e) {
+            System.err.println("Browser failed: " + e.getMessage());
+        }
+    }
+
+    // Mapa miejsc, wybór sąsiednich wolnych miejsc po stronie klienta i rezerwacja; null, gdy się nie udało
+    private Reservation browseAndBook(DatagramSocket socket, int userId, ScreeningSummary screening,
+                                      ThreadLocalRandom random) throws IOException {
+        Message seatsResponse = send(socket, new Message(MessageType.GET_SEATS, screening.getScreeningId()));
+        if (seatsResponse == null || !seatsResponse.isSuccess()) {
+            return null;
+        }
+        List<Seat> seats = pickSeats((boolean[][]) seatsResponse.getPayload(), random);
+        if (seats == null) {
+            soldOut.increment();
+            think(random);
+            return null;
+        }
+        think(random);
+
+        // Rezerwacja
+        bookingAttempts.increment();
+        ReservationCommand reservation = new ReservationCommand(screening.getScreeningId(), seats,
+                "Load User " + userId, "load" + userId + "@example.com", "000000000");
+        Message bookingResponse = send(socket, new Message(MessageType.MAKE_RESERVATION, reservation));
+        if (bookingResponse == null) {
+            return null;
+        }
+        if (!bookingResponse.isSuccess()) {
+            conflicts.increment();
+            return null;
+        }
+        return (Reservation) bookingResponse.getPayload();
+    }
+
+    // Cały repertuar, strona po stronie; null, gdy któraś strona nie dotarła
+    private List<ScreeningSummary> fetchScreenings(DatagramSocket socket) throws IOException {
+        List<ScreeningSummary> screenings = new ArrayList<>();
+        ScreeningPageRequest pageRequest = ScreeningPageRequest.first(0, SCREENINGS_PAGE_SIZE);
+        while (true) {
+            Message response = send(socket, new Message(MessageType.GET_SCREENINGS, pageRequest));
+            if (response == null || !response.isSuccess()) {
+                return null;
+            }
+            Page<ScreeningSummary> page = (Page<ScreeningSummary>) response.getPayload();
+            screenings.addAll(page.getItems());
+            if (!page.hasNext()) {
+                return screenings;
+            }
+            pageRequest = pageRequest.next(page);
+        }
+    }
+
+    private ScreeningSummary pickScreening(List<ScreeningSummary> screenings, ThreadLocalRandom random) {
+        if (screenings.isEmpty()) {
+            return null;
+        }
+        if (hotspotScreeningId > 0) {
+            for (ScreeningSummary screening : screenings) {
+                if (screening.getScreeningId() == hotspotScreeningId) {
+                    return screening;
+                }
+            }
+        }
+        return screenings.get(random.nextInt(screenings.size()));
+    }
+
+    // Losowy rząd, w którym jest partySize sąsiednich wolnych miejsc
+    private List<Seat> pickSeats(boolean[][] availableSeats, ThreadLocalRandom random) {
+        int rows = availableSeats.length;
+        int startRow = random.nextInt(rows);
+        for (int r = 0; r < rows; r++) {
+            boolean[] row = availableSeats[(startRow + r) % rows];
+            int run = 0;
+            for (int s = 0; s < row.length; s++) {
+                run = row[s] ? run + 1 : 0;
+                if (run == partySize) {
+                    List<Seat> seats = new ArrayList<>(partySize);
+                    for (int k = s - partySize + 1; k <= s; k++) {
+                        seats.add(new Seat((startRow + r) % rows + 1, k + 1, SeatStatus.RESERVED));
+                    }
+                    return seats;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void recordBooking(int screeningId, Reservation reservation) {
+        for (Seat seat : reservation.getReservedSeats()) {
+            String key = screeningId + ":" + seat.getRow() + ":" + seat.getNumber();
+            String previous = bookedSeats.putIfAbsent(key, reservation.getReservationId());
+            if (previous != null) {
+                // Serwer potwierdził miejsce, które jest już w innej aktywnej rezerwacji
+                doubleBookings.increment();
+                System.err.println("Double booking of seat " + key + ": " + previous +
+                                   " and " + reservation.getReservationId());
+            }
+        }
+    }
+
+    private void releaseBooking(int screeningId, Reservation reservation) {
+        for (Seat seat : reservation.getReservedSeats()) {
+            bookedSeats.remove(screeningId + ":" + seat.getRow() + ":" + seat.getNumber(),
+                               reservation.getReservationId());
+        }
+    }
+
+    // Sprawdza, czy wszystkie potwierdzone miejsca są zajęte według serwera; zwraca liczbę rozbieżności
+    private long verifyAgainstServer() {
+        Map<Integer, boolean[][]> seatMaps = new HashMap<>();
+        long missing = 0;
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setSoTimeout(timeoutMillis);
+            for (String key : bookedSeats.keySet()) {
+                String[] parts = key.split(":");
+                int screeningId = Integer.parseInt(parts[0]);
+                boolean[][] seats = seatMaps.get(screeningId);
+                if (seats == null) {
+                    Message response = send(socket, new Message(MessageType.GET_SEATS, screeningId));
+                    if (response == null || !response.isSuccess()) {
+                        continue;
+                    }
+                    seats = (boolean[][]) response.getPayload();
+                    seatMaps.put(screeningId, seats);
+                }
+                if (seats[Integer.parseInt(parts[1]) - 1][Integer.parseInt(parts[2]) - 1]) {
+                    missing++;
+                }
+            }
+            counterMismatches = verifySeatCounters(socket, seatMaps);
+        } catch (IOException e) {
+            System.err.println("Verification failed: " + e.getMessage());
+        }
+        return missing;
+    }
+
+    // Liczniki wolnych miejsc z GET_SEAT_COUNTS muszą zgadzać się z mapami miejsc tych seansów.
+    // Serwer przyjmuje najwyżej SeatCounts.MAX_SCREENINGS seansów na żądanie - pytamy partiami.
+    private long verifySeatCounters(DatagramSocket socket, Map<Integer, boolean[][]> seatMaps) throws IOException {
+        int[] screeningIds = seatMaps.keySet().stream().mapToInt(Integer::intValue).toArray();
+        long mismatches = 0;
+        for (int from = 0; from < screeningIds.length; from += SeatCounts.MAX_SCREENINGS) {
+            int[] batch = Arrays.copyOfRange(screeningIds, from,
+                                             Math.min(screeningIds.length, from + SeatCounts.MAX_SCREENINGS));
+            Message response = send(socket, new Message(MessageType.GET_SEAT_COUNTS, batch));
+            if (response == null || !response.isSuccess()) {
+                continue;
+            }
+            SeatCounts counts = (SeatCounts) response.getPayload();
+            for (int i = 0; i < counts.size(); i++) {
+                int free = 0;
+                for (boolean[] row : seatMaps.get(counts.getScreeningId(i))) {
+                    for (boolean available : row) {
+                        if (available) {
+                            free++;
+                        }
+                    }
+                }
+                if (free != counts.getAvailable(i)) {
+                    mismatches++;
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    // Odpowiedzi QUEUED z poczekalni są obsługiwane tutaj: czekamy wskazany czas i ponawiamy z biletem
+    private Message send(DatagramSocket socket, Message request) throws IOException {
+        while (true) {
+            request.setAdmissionTicket(admissionTicket.get());
+            Message response = exchange(socket, request);
+            if (response != null && response.isBusy()) {
+                // Serwer odrzucił żądanie bez przetwarzania - ponawiamy po wskazanym czasie z rozrzutem
+                busyResponses.increment();
+                long retryAfter = response.getRetryAfterMillis();
+                try {
+                    Thread.sleep(retryAfter + ThreadLocalRandom.current().nextLong(retryAfter / 2 + 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+                continue;
+            }
+            if (response == null || !response.isQueued()) {
+                return response;
+            }
+            queuedResponses.increment();
+            AdmissionTicket ticket = (AdmissionTicket) response.getPayload();
+            admissionTicket.set(ticket);
+            if (ticket.getRetryAfterMillis() > 0) {
+                try {
+                    Thread.sleep(ticket.getRetryAfterMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+    }
+
+    private Message exchange(DatagramSocket socket, Message request) throws IOException {
+        byte[] data = MessageCodec.encode(request);
+        long start = System.nanoTime();
+        socket.send(new DatagramPacket(data, data.length, serverAddress, serverPort));
+        requests.increment();
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (true) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+            } catch (SocketTimeoutException e) {
+                timeouts.increment();
+                return null;
+            }
+
+            Message response;
+            try {
+                response = MessageCodec.decode(packet.getData(), 0, packet.getLength());
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+
+            // Spóźniona odpowiedź na wcześniejsze żądanie, które uznaliśmy za zgubione.
+            // BUSY nie niesie identyfikatora - dotyczy ostatniego wysłanego żądania.
+            if (!response.isBusy() && response.getRequestId() != request.getRequestId()) {
+                continue;
+            }
+
+            latency.computeIfAbsent(request.getType(), t -> new Histogram(t.name()))
+                   .record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            if (response.isError()) {
+                errors.increment();
+            }
+            return response;
+        }
+    }
+
+    private void think(ThreadLocalRandom random) {
+        if (thinkMillis <= 0) {
+            return;
+        }
+        // Rozkład wykładniczy wokół średniego czasu namysłu
+        long pause = (long) (-thinkMillis * Math.log(1.0 - random.nextDouble()));
+        try {
+            Thread.sleep(Math.min(pause, thinkMillis * 10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void printReport(double elapsedSeconds, long missingOnServer) {
+        long attempts = bookingAttempts.sum();
+        System.out.println();
+        System.out.println("Load test report");
+        System.out.println("================");
+        System.out.printf("Virtual users:        %d%n", users);
+        System.out.printf("Duration:             %.1f s%n", elapsedSeconds);
+        System.out.printf("Requests:             %d (%.1f req/s)%n", requests.sum(), requests.sum() / elapsedSeconds);
+        System.out.printf("Timeouts:             %d%n", timeouts.sum());
+        System.out.printf("Error responses:      %d%n", errors.sum());
+        System.out.printf("Queued (waiting room): %d%n", queuedResponses.sum());
+        System.out.printf("Busy (shed):          %d%n", busyResponses.sum());
+        System.out.printf("Booking attempts:     %d%n", attempts);
+        System.out.printf("Bookings confirmed:   %d (%.1f /s)%n", bookings.sum(), bookings.sum() / elapsedSeconds);
+        System.out.printf("Conflicts:            %d (%.1f%% of attempts)%n", conflicts.sum(),
+                attempts == 0 ? 0.0 : 100.0 * conflicts.sum() / attempts);
+        System.out.printf("Sold out (no seats):  %d%n", soldOut.sum());
+        System.out.printf("Cancellations:        %d%n", cancellations.sum());
+        System.out.printf("Expired holds:        %d%n", expiredHolds.sum());
+        System.out.printf("Double bookings:      %d%n", doubleBookings.sum());
+        System.out.printf("Booked seats free on server: %d%n", missingOnServer);
+        System.out.printf("Seat counter mismatches: %d%n", counterMismatches);
+        System.out.println();
+        System.out.printf("%-28s %8s %10s %10s %10s %10s%n", "latency (us)", "count", "p50", "p90", "p99", "max");
+        for (Histogram histogram : latency.values()) {
+            System.out.printf("%-28s %8d %10d %10d %10d %10d%n", histogram.getName(), histogram.getCount(),
+                    histogram.getPercentile(50), histogram.getPercentile(90),
+                    histogram.getPercentile(99), histogram.getMax());
+        }
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else {
+                System.err.println("Ignoring argument: " + arg);
+            }
+        }
+        return options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        InetAddress host = InetAddress.getByName(options.getOrDefault("host", "localhost"));
+        int port = Integer.parseInt(options.getOrDefault("port", "9876"));
+        double loss = Double.parseDouble(options.getOrDefault("loss", "0"));
+
+        if (loss > 0) {
+            // Ruch przechodzi przez pośrednika gubiącego pakiety
+            try (LossyProxy proxy = new LossyProxy(host, port, loss)) {
+                new LoadGenerator(InetAddress.getLoopbackAddress(), proxy.getPort(), options).run();
+                System.out.printf("Proxy: %d packets forwarded, %d dropped%n", proxy.getForwarded(), proxy.getDropped());
+            }
+        } else {
+            new LoadGenerator(host, port, options).run();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package tools;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pośrednik UDP na interfejsie loopback, który losowo gubi pakiety w obu kierunkach.
+// Każdy klient dostaje własne gniazdo w stronę serwera, dzięki czemu odpowiedzi wracają do właściwego nadawcy.
+public class LossyProxy implements AutoCloseable {
+    private static final int BUFFER_SIZE = 65507;
+
+    private final DatagramSocket frontSocket;
+    private final InetSocketAddress serverAddress;
+    private final double lossRate;
+    private final Map<SocketAddress, DatagramSocket> upstreams = new ConcurrentHashMap<>();
+    private final AtomicLong forwarded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+
+    public LossyProxy(InetAddress serverHost, int serverPort, double lossRate) throws SocketException {
+        this.frontSocket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        this.serverAddress = new InetSocketAddress(serverHost, serverPort);
+        this.lossRate = lossRate;
+
+        Thread thread = new Thread(this::forwardRequests, "lossy-proxy");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public int getPort() {
+        return frontSocket.getLocalPort();
+    }
+
+    public long getForwarded() {
+        return forwarded.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private boolean drop() {
+        if (lossRate > 0 && ThreadLocalRandom.current().nextDouble() < lossRate) {
+            dropped.incrementAndGet();
+            return true;
+        }
+        forwarded.incrementAndGet();
+        return false;
+    }
+
+    private void forwardRequests() {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (running) {
+            try {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                frontSocket.receive(packet);
+                if (drop()) {
+                    continue;
+                }
+
+                DatagramSocket upstream = upstreams.computeIfAbsent(packet.getSocketAddress(), this::openUpstream);
+                upstream.send(new DatagramPacket(packet.getData(), packet.getLength(), serverAddress));
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Proxy error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private DatagramSocket openUpstream(SocketAddress client) {
+        try {
+            DatagramSocket upstream = new DatagramSocket();
+            Thread thread = new Thread(() -> forwardResponses(upstream, client), "lossy-proxy-upstream");
+            thread.setDaemon(true);
+            thread.start();
+            return upstream;
+        } catch (SocketException e) {
+            throw new IllegalStateException("Cannot open upstream socket", e);
+        }
+    }
+
+    private void forwardResponses(DatagramSocket upstream, SocketAddress client) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (running) {
+            try {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                upstream.receive(packet);
+                if (drop()) {
+                    continue;
+                }
+                frontSocket.send(new DatagramPacket(packet.getData(), packet.getLength(), client));
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Proxy error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        frontSocket.close();
+        for (DatagramSocket upstream : upstreams.values()) {
+            upstream.close();
+        }
+    }
+}
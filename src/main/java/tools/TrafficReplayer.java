@@ -0,0 +1,275 @@
+package tools;
+
+import capture.CaptureReader;
+import capture.CaptureRecord;
+import metrics.Histogram;
+import models.Message;
+import models.MessageCodec;
+import models.Reservation;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Odtwarza ruch przechwycony przez serwer (-Dcinema.capture=<plik>) względem wskazanego serwera
+// i porównuje odpowiedzi z zapisanymi: kod statusu, komunikat i typ danych odpowiedzi.
+// Identyfikatory rezerwacji czy znaczniki czasu różnią się między uruchomieniami, więc treść nie jest porównywana;
+// identyfikatory w żądaniach anulowania są podmieniane na nadane przez serwer podczas odtwarzania.
+//
+// java -cp target/classes tools.TrafficReplayer traffic.cap --speed=1|<N>|max [--host --port --timeout --show]
+//
+// --speed=1 zachowuje oryginalne odstępy między żądaniami, --speed=4 odtwarza 4x szybciej,
+// --speed=max wysyła bez przerw. Każdy oryginalny nadawca dostaje własne gniazdo.
+public class TrafficReplayer {
+    private static final int BUFFER_SIZE = 65507;
+
+    private static class Pending {
+        final String type;
+        final long sentNanos;
+        final Message expected;
+
+        Pending(String type, long sentNanos, Message expected) {
+            this.type = type;
+            this.sentNanos = sentNanos;
+            this.expected = expected;
+        }
+    }
+
+    private final InetAddress serverAddress;
+    private final int serverPort;
+    private final double speed;
+    private final int timeoutMillis;
+    private final int show;
+
+    private final Map<String, DatagramSocket> sockets = new HashMap<>();
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    // Identyfikator rezerwacji z przechwytywania -> identyfikator nadany przy odtwarzaniu
+    private final Map<String, String> reservationIds = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> latency = new ConcurrentHashMap<>();
+    private final AtomicLong responses = new AtomicLong();
+    private final AtomicLong matched = new AtomicLong();
+    private final AtomicLong mismatched = new AtomicLong();
+    private final AtomicLong unexpected = new AtomicLong();
+    private volatile boolean running = true;
+
+    public TrafficReplayer(InetAddress serverAddress, int serverPort, double speed, int timeoutMillis, int show) {
+        this.serverAddress = serverAddress;
+        this.serverPort = serverPort;
+        this.speed = speed;
+        this.timeoutMillis = timeoutMillis;
+        this.show = show;
+    }
+
+    public void replay(List<CaptureRecord> records) throws IOException {
+        // Zapisane odpowiedzi serwera, po identyfikatorze żądania
+        Map<Long, Message> expectedResponses = new HashMap<>();
+        List<CaptureRecord> requests = new ArrayList<>();
+        for (CaptureRecord record : records) {
+            if (record.isInbound()) {
+                requests.add(record);
+            } else {
+                Message response = decodeOrNull(record.getData());
+                if (response != null) {
+                    expectedResponses.put(response.getRequestId(), response);
+                }
+            }
+        }
+        if (requests.isEmpty()) {
+            System.out.println("No requests in capture");
+            return;
+        }
+
+        long undecodable = 0;
+        long firstTimestamp = requests.get(0).getTimestampNanos();
+        long capturedSpan = requests.get(requests.size() - 1).getTimestampNanos() - firstTimestamp;
+        long replayStart = System.nanoTime();
+
+        for (CaptureRecord record : requests) {
+            if (!Double.isInfinite(speed)) {
+                long target = replayStart + (long) ((record.getTimestampNanos() - firstTimestamp) / speed);
+                long wait;
+                while ((wait = target - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+
+            Message request = decodeOrNull(record.getData());
+            if (request == null) {
+                // Uszkodzone datagramy też są częścią ruchu - wysyłamy je bez oczekiwania na odpowiedź
+                undecodable++;
+            } else {
+                pending.put(request.getRequestId(), new Pending(request.getType().name(), System.nanoTime(),
+                                                                expectedResponses.get(request.getRequestId())));
+            }
+
+            byte[] data = record.getData();
+            if (request != null && request.getPayload() instanceof String) {
+                // Anulowanie odnosi się do rezerwacji utworzonej wcześniej w tym samym ruchu
+                String replayedId = reservationIds.get((String) request.getPayload());
+                if (replayedId != null) {
+                    request.setPayload(replayedId);
+                    data = MessageCodec.encode(request);
+                }
+            }
+            socketFor(record).send(new DatagramPacket(data, data.length, serverAddress, serverPort));
+        }
+
+        // Czekamy na ostatnie odpowiedzi
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!pending.isEmpty() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        long replaySpan = System.nanoTime() - replayStart;
+
+        running = false;
+        for (DatagramSocket socket : sockets.values()) {
+            socket.close();
+        }
+
+        printReport(requests.size(), undecodable, capturedSpan, replaySpan);
+    }
+
+    private DatagramSocket socketFor(CaptureRecord record) throws SocketException {
+        String source = record.getAddress().getHostAddress() + ":" + record.getPort();
+        DatagramSocket socket = sockets.get(source);
+        if (socket == null) {
+            DatagramSocket newSocket = new DatagramSocket();
+            Thread thread = new Thread(() -> receiveLoop(newSocket), "replay-" + source);
+            thread.setDaemon(true);
+            thread.start();
+            sockets.put(source, newSocket);
+            socket = newSocket;
+        }
+        return socket;
+    }
+
+    private void receiveLoop(DatagramSocket socket) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (running) {
+            try {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                socket.receive(packet);
+                long receivedNanos = System.nanoTime();
+
+                Message response = MessageCodec.decode(packet.getData(), 0, packet.getLength());
+                responses.incrementAndGet();
+                Pending request = pending.remove(response.getRequestId());
+                if (request == null) {
+                    unexpected.incrementAndGet();
+                    continue;
+                }
+
+                latency.computeIfAbsent(request.type, Histogram::new)
+                       .record(TimeUnit.NANOSECONDS.toMicros(receivedNanos - request.sentNanos));
+                compare(request, response);
+            } catch (IOException | ClassNotFoundException e) {
+                if (running) {
+                    System.err.println("Replay receive error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void compare(Pending request, Message actual) {
+        Message expected = request.expected;
+        if (expected == null) {
+            // Odpowiedź nie trafiła do przechwytywania (np. odrzucona z pełnej kolejki)
+            return;
+        }
+
+        List<String> differences = new ArrayList<>();
+        if (!Objects.equals(expected.getStatusCode(), actual.getStatusCode())) {
+            differences.add("status " + expected.getStatusCode() + " -> " + actual.getStatusCode());
+        }
+        if (!Objects.equals(expected.getStatusMessage(), actual.getStatusMessage())) {
+            differences.add("message '" + expected.getStatusMessage() + "' -> '" + actual.getStatusMessage() + "'");
+        }
+        String expectedClass = payloadClassOf(expected);
+        String actualClass = payloadClassOf(actual);
+        if (!expectedClass.equals(actualClass)) {
+            differences.add("payload " + expectedClass + " -> " + actualClass);
+        }
+
+        if (expected.getPayload() instanceof Reservation && actual.getPayload() instanceof Reservation) {
+            reservationIds.put(((Reservation) expected.getPayload()).getReservationId(),
+                               ((Reservation) actual.getPayload()).getReservationId());
+        }
+
+        if (differences.isEmpty()) {
+            matched.incrementAndGet();
+        } else if (mismatched.incrementAndGet() <= show) {
+            System.out.println("MISMATCH " + request.type + " requestId=" + actual.getRequestId() + ": " +
+                               String.join(", ", differences));
+        }
+    }
+
+    private static String payloadClassOf(Message message) {
+        return message.getPayload() == null ? "null" : message.getPayload().getClass().getSimpleName();
+    }
+
+    private static Message decodeOrNull(byte[] data) {
+        try {
+            return MessageCodec.decode(data, 0, data.length);
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    private void printReport(int sent, long undecodable, long capturedSpan, long replaySpan) {
+        System.out.println();
+        System.out.println("Replay report");
+        System.out.println("=============");
+        System.out.printf("Requests sent:        %d (%d undecodable)%n", sent, undecodable);
+        System.out.printf("Captured span:        %.2f s%n", capturedSpan / 1e9);
+        System.out.printf("Replay span:          %.2f s (%.1f req/s)%n", replaySpan / 1e9, sent / (replaySpan / 1e9));
+        System.out.printf("Responses:            %d%n", responses.get());
+        System.out.printf("No response:          %d%n", pending.size());
+        System.out.printf("Unexpected responses: %d%n", unexpected.get());
+        System.out.printf("Matching responses:   %d%n", matched.get());
+        System.out.printf("Differing responses:  %d%n", mismatched.get());
+        System.out.println();
+        System.out.printf("%-28s %8s %10s %10s %10s %10s%n", "latency (us)", "count", "p50", "p90", "p99", "max");
+        for (Histogram histogram : latency.values()) {
+            System.out.printf("%-28s %8d %10d %10d %10d %10d%n", histogram.getName(), histogram.getCount(),
+                    histogram.getPercentile(50), histogram.getPercentile(90),
+                    histogram.getPercentile(99), histogram.getMax());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: java tools.TrafficReplayer <capture file> [--speed=1|N|max] " +
+                               "[--host=localhost] [--port=9876] [--timeout=2000] [--show=20]");
+            return;
+        }
+        String file = args[0];
+        Map<String, String> options = LoadGenerator.parseOptions(Arrays.copyOfRange(args, 1, args.length));
+        String speedOption = options.getOrDefault("speed", "1");
+        double speed = speedOption.equalsIgnoreCase("max") ? Double.POSITIVE_INFINITY : Double.parseDouble(speedOption);
+
+        List<CaptureRecord> records;
+        try (CaptureReader reader = new CaptureReader(file)) {
+            records = reader.readAll();
+        }
+
+        TrafficReplayer replayer = new TrafficReplayer(
+                InetAddress.getByName(options.getOrDefault("host", "localhost")),
+                Integer.parseInt(options.getOrDefault("port", "9876")),
+                speed,
+                Integer.parseInt(options.getOrDefault("timeout", "2000")),
+                Integer.parseInt(options.getOrDefault("show", "20")));
+        replayer.replay(records);
+    }
+}
@@ -0,0 +1,76 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Generator 64-bitowych identyfikatorów uporządkowanych w czasie (schemat Snowflake):
+// 41 bitów znacznika czasu (ms od EPOCH), 10 bitów numeru węzła, 12 bitów licznika sekwencji.
+// Kolejne identyfikatory rosną monotonicznie, więc wstawienia do indeksu trafiają na jego koniec.
+public final class IdGenerator {
+    // 2024-01-01T00:00:00Z
+    private static final long EPOCH = 1704067200000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final IdGenerator DEFAULT = new IdGenerator(Long.getLong("cinema.nodeId", 0L));
+
+    private final long nodeBits;
+    // Ostatni wydany stan: (znacznik czasu << SEQUENCE_BITS) | sekwencja
+    private final AtomicLong lastState = new AtomicLong();
+
+    public IdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+    }
+
+    public static IdGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    public static long next() {
+        return DEFAULT.nextId();
+    }
+
+    public long nextId() {
+        while (true) {
+            long last = lastState.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long now = System.currentTimeMillis() - EPOCH;
+
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Ta sama milisekunda albo zegar cofnięty - zostajemy przy ostatnim znaczniku czasu
+                // i zwiększamy sekwencję; po jej wyczerpaniu przechodzimy na kolejną milisekundę
+                next = last + 1;
+            }
+
+            if (lastState.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & SEQUENCE_MASK;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+            }
+        }
+    }
+
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    // Identyfikatory sprzed wprowadzenia generatora to UUID - nie dają się sparsować jako long
+    public static boolean isGeneratedId(String id) {
+        if (id == null || id.isEmpty() || id.length() > 19) {
+            return false;
+        }
+        try {
+            return Long.parseLong(id) >= 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
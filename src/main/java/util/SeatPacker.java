@@ -0,0 +1,85 @@
+package util;
+
+import models.Room;
+import models.Seat;
+import models.SeatStatus;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Kompaktowy format zapisu miejsc: zamiast jednego wiersza w bazie na każde miejsce
+// zapisujemy tablicę upakowanych intów (row << 16 | number) jako jeden BLOB.
+public final class SeatPacker {
+    private static final int SEAT_BYTES = 4;
+    private static final int LAYOUT_ENTRY_BYTES = 5;
+
+    private SeatPacker() {
+    }
+
+    public static int pack(int row, int number) {
+        return (row << 16) | (number & 0xFFFF);
+    }
+
+    public static int rowOf(int packedSeat) {
+        return packedSeat >>> 16;
+    }
+
+    public static int numberOf(int packedSeat) {
+        return packedSeat & 0xFFFF;
+    }
+
+    public static byte[] packSeats(List<Seat> seats) {
+        ByteBuffer buffer = ByteBuffer.allocate(seats.size() * SEAT_BYTES);
+        for (Seat seat : seats) {
+            buffer.putInt(pack(seat.getRow(), seat.getNumber()));
+        }
+        return buffer.array();
+    }
+
+    public static List<Seat> unpackSeats(byte[] data, SeatStatus status) {
+        List<Seat> seats = new ArrayList<>(data.length / SEAT_BYTES);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.remaining() >= SEAT_BYTES) {
+            int packed = buffer.getInt();
+            seats.add(new Seat(rowOf(packed), numberOf(packed), status));
+        }
+        return seats;
+    }
+
+    // Deskryptor układu sali: zapisujemy tylko miejsca, których status różni się od AVAILABLE.
+    // Pusta tablica oznacza salę, w której wszystkie miejsca są dostępne.
+    public static byte[] packLayout(Room room) {
+        List<Seat> exceptions = new ArrayList<>();
+        for (Seat[] row : room.getSeats()) {
+            for (Seat seat : row) {
+                if (seat.getStatus() != SeatStatus.AVAILABLE) {
+                    exceptions.add(seat);
+                }
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(exceptions.size() * LAYOUT_ENTRY_BYTES);
+        for (Seat seat : exceptions) {
+            buffer.putInt(pack(seat.getRow(), seat.getNumber()));
+            buffer.put((byte) seat.getStatus().ordinal());
+        }
+        return buffer.array();
+    }
+
+    public static void applyLayout(Room room, byte[] layout) {
+        SeatStatus[] statuses = SeatStatus.values();
+        ByteBuffer buffer = ByteBuffer.wrap(layout);
+        while (buffer.remaining() >= LAYOUT_ENTRY_BYTES) {
+            int packed = buffer.getInt();
+            SeatStatus status = statuses[buffer.get()];
+            int row = rowOf(packed);
+            int number = numberOf(packed);
+
+            if (row > 0 && row <= room.getRows() &&
+                number > 0 && number <= room.getSeatsPerRow()) {
+                room.updateSeatStatus(row, number, status);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationCommandTest {
+    private final Room room = new Room(1, "Sala 1", 10, 70);
+
+    @Test
+    void acceptsDistinctSeatsInsideTheRoom() {
+        assertTrue(command(seat(1, 1), seat(1, 2), seat(10, 70), seat(2, 65)).hasValidSeats(room));
+    }
+
+    @Test
+    void rejectsTheSameSeatTwice() {
+        assertFalse(command(seat(1, 1), seat(1, 1)).hasValidSeats(room));
+    }
+
+    @Test
+    void rejectsDuplicatesPastTheFirstWordOfARow() {
+        assertFalse(command(seat(3, 66), seat(4, 66), seat(3, 66)).hasValidSeats(room));
+    }
+
+    @Test
+    void rejectsSeatsOutsideTheRoom() {
+        assertFalse(command(seat(0, 1)).hasValidSeats(room));
+        assertFalse(command(seat(11, 1)).hasValidSeats(room));
+        assertFalse(command(seat(1, 0)).hasValidSeats(room));
+        assertFalse(command(seat(1, 71)).hasValidSeats(room));
+    }
+
+    @Test
+    void rejectsAnEmptySelection() {
+        assertFalse(command().hasValidSeats(room));
+    }
+
+    @Test
+    void legacyReservationWithNullSeatIsRejected() {
+        Movie movie = new Movie(1, "Inception", 148, "", "Sci-Fi", "Christopher Nolan", 2010, "English");
+        Screening screening = new Screening(1, movie, room, LocalDateTime.now().plusDays(1), 25.0);
+        List<Seat> seats = new ArrayList<>(Arrays.asList(seat(1, 1), null));
+        Reservation reservation = new Reservation(screening, seats, "Jan", "jan@example.com", "123");
+
+        assertNull(ReservationCommand.from(reservation));
+    }
+
+    private static ReservationCommand command(Seat... seats) {
+        return new ReservationCommand(1, Arrays.asList(seats), "Jan", "jan@example.com", "123");
+    }
+
+    private static Seat seat(int row, int number) {
+        return new Seat(row, number, SeatStatus.RESERVED);
+    }
+}
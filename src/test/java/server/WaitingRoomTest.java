@@ -0,0 +1,74 @@
+package server;
+
+import models.AdmissionTicket;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WaitingRoomTest {
+    private static final int SCREENING = 7;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    // 10 wejść/s i bilet ważny 1 s - kolejka 100 osób jest dziesięć razy dłuższa niż okno ważności
+    private final WaitingRoom room = new WaitingRoom(10, 1, 1000, null, id -> true, clock::get);
+
+    @Test
+    void admitsAQueueDeeperThanTheTicketTtlInOrder() {
+        int clients = 100;
+        AdmissionTicket[] tickets = new AdmissionTicket[clients];
+        long[] nextCheck = new long[clients];
+        for (int i = 0; i < clients; i++) {
+            tickets[i] = room.join(SCREENING);
+            nextCheck[i] = clock.get() + tickets[i].getRetryAfterMillis();
+        }
+
+        // Klienci ponawiają dokładnie po wskazanym retryAfter, jak UDPClient i LoadGenerator
+        List<Long> admitted = new ArrayList<>();
+        while (admitted.size() < clients && clock.get() < 1_000_000 + 60_000) {
+            for (int i = 0; i < clients; i++) {
+                if (tickets[i] == null || nextCheck[i] > clock.get()) {
+                    continue;
+                }
+                AdmissionTicket retry = room.check(SCREENING, tickets[i]);
+                if (retry == null) {
+                    admitted.add(tickets[i].getPosition());
+                    tickets[i] = null;
+                    continue;
+                }
+                assertEquals(tickets[i].getPosition(), retry.getPosition(), "ticket re-queued");
+                tickets[i] = retry;
+                nextCheck[i] = clock.get() + retry.getRetryAfterMillis();
+            }
+            clock.addAndGet(10);
+        }
+
+        assertEquals(clients, admitted.size());
+        for (int i = 1; i < admitted.size(); i++) {
+            assertEquals(admitted.get(i - 1) + 1, (long) admitted.get(i), "admitted out of order");
+        }
+    }
+
+    @Test
+    void ticketTtlStartsWhenTheTurnComes() {
+        for (int i = 0; i < 50; i++) {
+            room.join(SCREENING);
+        }
+        AdmissionTicket ticket = room.join(SCREENING);
+
+        // Klient nie ponawia w kolejce; jego kolej przychodzi po ~5 s, bilet jest ważny jeszcze sekundę
+        clock.addAndGet(5_500);
+        assertNull(room.check(SCREENING, ticket));
+
+        clock.set(ticket.getAdmitAt() + 1000);
+        AdmissionTicket requeued = room.check(SCREENING, ticket);
+        assertNotNull(requeued);
+        assertEquals(51, requeued.getPosition(), "expired ticket joins at the end of the queue");
+    }
+}